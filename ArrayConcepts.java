@@ -1,4 +1,17 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * ArrayConcepts: DSA Array Concepts in Java
@@ -13,18 +26,30 @@ import java.util.*;
  * 6. Move Zeroes to End
  * 7. Remove Duplicates from Sorted Array
  * 8. Rotate Array
- * 9. Kadane's Algorithm (Maximum Subarray Sum)
+ * 9. Kadane's Algorithm (Maximum Subarray Sum; parallel block summaries)
  * 10. Prefix Sum
- * 11. Merge Intervals
+ * 11. Merge Intervals (plus a columnar long[] version for very large inputs)
  * 12. Product of Array Except Self
  * 13. Majority Element (Boyer-Moore)
  * 14. Next Permutation
  * 15. Subarray Sum Equals K
  * 16. Find Missing Number
  * 17. Find Duplicate Number
- * 18. Trapping Rain Water
+ * 18. Trapping Rain Water (two pointers; parallel with per-block maxima)
  * 19. Longest Consecutive Sequence
  * 20. Sliding Window Maximum
+ * 21. Primitive Open-addressing IntIntMap / IntSet (no boxing)
+ * 22. Introselect (ninther pivots, median-of-medians fallback, multi-rank, non-mutating)
+ * 23. Parallel Prefix Sum (long accumulation) and Fenwick Tree range sums
+ * 24. Streaming Sliding Window Max/Min (push-based, count or time windows, primitive ring buffer)
+ * 25. Sliding Window Median / Quantile (dual heaps with lazy deletion, O(log k) per slide)
+ * 26. Eytzinger (BFS-order) Search Index with branchless, batched lower/upper bound
+ * 27. Interval Tree (array-backed treap augmented with max end: stabbing / overlap queries, updatable)
+ * 28. SIMD Scan Tier (Vector API kernels for min/max/sum/reverse/moveZeroes, scalar fallback)
+ * 29. IntSequence: long-indexed int arrays, memory-mapped from files (min/max, Kadane, prefix sum,
+ *     trap, majority, sliding window, binary search run over them zero-copy)
+ * 30. Streaming Heavy Hitters (Misra-Gries summary, Count-Min sketch, exact verification pass)
+ * 31. Parallel longestConsecutive / containsDuplicate (dense atomic bitset or parallel LSD radix sort)
  */
 
 public class ArrayConcepts {
@@ -70,7 +95,7 @@ public class ArrayConcepts {
         System.out.println("Rotate by 3: " + Arrays.toString(rotateArray(arrForRotation.clone(), 3)));
 
         // 9. Kadane's Algorithm
-        System.out.println("Max subarray sum: " + maxSubArray(arr));
+        System.out.println("Max subarray sum: " + maxSubArray(arr) + " (parallel: " + maxSubArrayParallel(arr) + ")");
 
         // 10. Prefix Sum
         System.out.println("Prefix sum: " + Arrays.toString(prefixSum(arr)));
@@ -78,6 +103,8 @@ public class ArrayConcepts {
         // 11. Merge Intervals
         int[][] intervals = {{1,3},{2,6},{8,10},{15,18}};
         System.out.println("Merged intervals: " + Arrays.deepToString(mergeIntervals(intervals)));
+        long[][] merged = mergeIntervals(new long[]{1, 2, 8, 15}, new long[]{3, 6, 10, 18});
+        System.out.println("Merged intervals (columnar): " + Arrays.toString(merged[0]) + " " + Arrays.toString(merged[1]));
 
         // 12. Product of Array Except Self
         System.out.println("Product except self: " + Arrays.toString(productExceptSelf(arrForProduct)));
@@ -99,36 +126,98 @@ public class ArrayConcepts {
         System.out.println("Duplicate number: " + findDuplicate(arrForDuplicate));
 
         // 18. Trapping Rain Water
-        System.out.println("Trapped rain water: " + trap(arrForRain));
+        System.out.println("Trapped rain water: " + trap(arrForRain) + " (parallel: " + trapParallel(arrForRain) + ")");
 
         // 19. Longest Consecutive Sequence
         System.out.println("Longest consecutive sequence: " + longestConsecutive(arrForConsecutive));
+        int[] arrAtIntLimits = {Integer.MIN_VALUE, Integer.MIN_VALUE + 1, Integer.MAX_VALUE}; // runs never wrap around
+        System.out.println("Longest consecutive at int limits: " + longestConsecutive(arrAtIntLimits)
+                + " (boxed: " + longestConsecutiveBoxed(arrAtIntLimits) + ", parallel: " + longestConsecutiveParallel(arrAtIntLimits) + ")");
 
         // 20. Sliding Window Maximum (k=3)
         System.out.println("Sliding window max: " + Arrays.toString(maxSlidingWindow(arrForSliding, 3)));
+
+        // 21. Primitive IntIntMap (run: java ArrayConcepts bench)
+        IntIntMap counts = new IntIntMap(16);
+        for (int n : arr) counts.addTo(n, 1);
+        System.out.println("Count of 5 via IntIntMap: " + counts.get(5, 0));
+
+        // 22. Introselect: several order statistics in one pass, caller's array untouched
+        System.out.println("p50/p90/p99: " + Arrays.toString(percentiles(arr, 50, 90, 99)));
+
+        // 23. Parallel Prefix Sum and Fenwick Tree
+        System.out.println("Parallel prefix sum: " + Arrays.toString(prefixSumParallel(arr)));
+        FenwickTree fenwick = new FenwickTree(arr);
+        fenwick.add(4, 10);
+        System.out.println("Range sum [2, 5] after arr[4] += 10: " + fenwick.rangeSum(2, 5));
+
+        // 24. Streaming Sliding Window Max (values pushed one at a time)
+        SlidingWindowExtremum windowMax = SlidingWindowExtremum.maxOverCount(3);
+        StringBuilder streamed = new StringBuilder();
+        for (int v : arrForSliding) {
+            long m = windowMax.push(v);
+            if (windowMax.isFull()) streamed.append(m).append(' ');
+        }
+        System.out.println("Streaming window max: " + streamed.toString().trim());
+
+        // 25. Sliding Window Median / Quantile
+        System.out.println("Sliding window median: " + Arrays.toString(medianSlidingWindow(arrForSliding, 3)));
+        System.out.println("Sliding window p90 (k=4): " + Arrays.toString(quantileSlidingWindow(arrForSliding, 4, 0.9)));
+
+        // 26. Eytzinger Search Index (same answers as binary search on sortedArr)
+        EytzingerIndex index = new EytzingerIndex(sortedArr);
+        System.out.println("Eytzinger lowerBound(5): " + index.lowerBound(5) + ", upperBound(5): " + index.upperBound(5)
+                + ", searchAll(2, 7, 9): " + Arrays.toString(index.searchAll(new int[]{2, 7, 9})));
+
+        // 27. Interval Tree: stabbing and overlap queries without re-merging
+        IntervalTree tree = new IntervalTree();
+        for (int[] iv : intervals) tree.add(iv[0], iv[1]);
+        int removed = tree.add(4, 9);
+        tree.remove(removed);
+        System.out.println("Intervals containing 9: " + tree.countOverlapping(9, 9)
+                + ", overlapping [5, 16]: " + Arrays.toString(tree.overlapping(5, 16)));
+
+        // 28. SIMD Scan Tier (build vector/ArrayVectorKernels.java to enable, see its header)
+        System.out.println("Scan kernels: " + SCANS.name());
+
+        // 29. IntSequence (a mapped file works the same: MappedIntSequence.open(path, ByteOrder.LITTLE_ENDIAN))
+        IntSequence seq = IntSequence.of(arrForRain);
+        System.out.print("IntSequence max " + findMax(seq) + ", trap " + trap(seq) + ", window max:");
+        maxSlidingWindow(seq, 3, m -> System.out.print(" " + m));
+        System.out.println();
+
+        // 30. Streaming Heavy Hitters: keys above n / (k + 1), verified by replaying the source
+        int[] stream = {1, 2, 1, 3, 1, 2, 4, 1, 2, 5};
+        System.out.println("Heavy hitters (k=2): " + Arrays.toString(heavyHitters(() -> Arrays.stream(stream), 2)));
+        CountMinSketch sketch = CountMinSketch.forError(0.01, 0.01, 42);
+        sketch.updateAll(stream, 0, stream.length);
+        System.out.println("Count-Min estimate of 1: " + sketch.estimate(1));
+
+        // 31. Range-adaptive parallel engines (bitset for dense values, radix sort otherwise)
+        System.out.println("Longest consecutive (parallel): " + longestConsecutiveParallel(arrForConsecutive)
+                + ", contains duplicate (parallel): " + containsDuplicateParallel(arr));
+
+        if (args.length > 0 && args[0].equals("bench")) {
+            benchmarkHashing(5_000_000);
+            benchmarkScans(1 << 22);
+        }
     }
 
-    // 1. Find Minimum
+    // 1. Find Minimum (SIMD tier when available, see section 28)
     static int findMin(int[] arr) {
-        int min = arr[0];
-        for (int n : arr) min = Math.min(min, n);
-        return min;
+        if (arr.length == 0) throw new NoSuchElementException("empty array");
+        return SCANS.min(arr);
     }
 
     // 1. Find Maximum
     static int findMax(int[] arr) {
-        int max = arr[0];
-        for (int n : arr) max = Math.max(max, n);
-        return max;
+        if (arr.length == 0) throw new NoSuchElementException("empty array");
+        return SCANS.max(arr);
     }
 
     // 2. Reverse Array
     static int[] reverseArray(int[] arr) {
-        int l = 0, r = arr.length - 1;
-        while (l < r) {
-            int tmp = arr[l]; arr[l] = arr[r]; arr[r] = tmp;
-            l++; r--;
-        }
+        SCANS.reverse(arr);
         return arr;
     }
 
@@ -154,22 +243,41 @@ public class ArrayConcepts {
         return quickSelect(arr, 0, arr.length - 1, k - 1);
     }
 
+    // Introselect (see 22): O(n) expected, O(n log n) worst case, no recursion
     static int quickSelect(int[] arr, int l, int r, int k) {
-        if (l == r) return arr[l];
-        int pivot = arr[r], p = l;
-        for (int i = l; i < r; i++) {
-            if (arr[i] <= pivot) {
-                int tmp = arr[i]; arr[i] = arr[p]; arr[p] = tmp; p++;
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(r - l + 1));
+        while (true) {
+            if (r - l < 16) {
+                insertionSort(arr, l, r);
+                return arr[k];
             }
+            int pivot = depth-- > 0 ? ninther(arr, l, r) : medianOfMedians(arr, l, r);
+            long bounds = partition3(arr, l, r, pivot);
+            int lt = (int) (bounds >>> 32), gt = (int) bounds;
+            if (k < lt) r = lt - 1;
+            else if (k > gt) l = gt + 1;
+            else return pivot;
         }
-        int tmp = arr[p]; arr[p] = arr[r]; arr[r] = tmp;
-        if (k == p) return arr[p];
-        else if (k < p) return quickSelect(arr, l, p - 1, k);
-        else return quickSelect(arr, p + 1, r, k);
     }
 
-    // 5. Two Sum (HashMap)
+    // 5. Two Sum (primitive IntIntMap, no boxing)
     static int[] twoSum(int[] arr, int target) {
+        return twoSum(arr, target, new IntIntMap(arr.length));
+    }
+
+    // 5. Two Sum reusing a caller-owned map (cleared first), so repeated calls allocate nothing
+    static int[] twoSum(int[] arr, int target, IntIntMap map) {
+        map.clear();
+        for (int i = 0; i < arr.length; i++) {
+            int complement = target - arr[i];
+            if (map.containsKey(complement)) return new int[]{map.get(complement, -1), i};
+            map.put(arr[i], i);
+        }
+        return new int[0];
+    }
+
+    // 5. Two Sum (boxed HashMap reference version)
+    static int[] twoSumBoxed(int[] arr, int target) {
         Map<Integer, Integer> map = new HashMap<>();
         for (int i = 0; i < arr.length; i++) {
             int complement = target - arr[i];
@@ -181,11 +289,7 @@ public class ArrayConcepts {
 
     // 6. Move Zeroes to End
     static int[] moveZeroes(int[] arr) {
-        int idx = 0;
-        for (int i = 0; i < arr.length; i++) {
-            if (arr[i] != 0) arr[idx++] = arr[i];
-        }
-        while (idx < arr.length) arr[idx++] = 0;
+        SCANS.moveZeroes(arr);
         return arr;
     }
 
@@ -225,6 +329,37 @@ public class ArrayConcepts {
         return maxSoFar;
     }
 
+    // 9. Kadane's Algorithm, parallel: each SCAN_BLOCK is reduced on its own to the summary
+    // (total, best prefix, best suffix, best); summaries combine associatively left to right:
+    //   best = max(a.best, b.best, a.suffix + b.prefix), prefix = max(a.prefix, a.total + b.prefix), ...
+    // Sums are long, so large arrays cannot overflow the way the int version does.
+    static long maxSubArrayParallel(int[] arr) {
+        int n = arr.length;
+        if (n == 0) throw new NoSuchElementException("empty array");
+        int blocks = (n + SCAN_BLOCK - 1) / SCAN_BLOCK;
+        long[] total = new long[blocks], prefix = new long[blocks], suffix = new long[blocks], best = new long[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int from = b * SCAN_BLOCK, to = Math.min(n, from + SCAN_BLOCK);
+            long sum = 0, pre = Long.MIN_VALUE, endingHere = Long.MIN_VALUE, bestHere = Long.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                sum += arr[i];
+                pre = Math.max(pre, sum);
+                endingHere = endingHere < 0 ? arr[i] : endingHere + arr[i];
+                bestHere = Math.max(bestHere, endingHere);
+            }
+            total[b] = sum;
+            prefix[b] = pre;
+            suffix[b] = endingHere; // the best subarray ending at the block's last element
+            best[b] = bestHere;
+        });
+        long suf = suffix[0], res = best[0];
+        for (int b = 1; b < blocks; b++) {
+            res = Math.max(Math.max(res, best[b]), suf + prefix[b]);
+            suf = Math.max(suffix[b], total[b] + suf);
+        }
+        return res;
+    }
+
     // 10. Prefix Sum
     static int[] prefixSum(int[] arr) {
         int[] ps = new int[arr.length];
@@ -250,6 +385,30 @@ public class ArrayConcepts {
         return res.toArray(new int[res.size()][]);
     }
 
+    // 11. Merge Intervals, columnar: interval i is [starts[i], ends[i]]; returns {mergedStarts, mergedEnds}
+    // Starts and ends are sorted independently with a parallel primitive sort (no per-interval
+    // objects, no comparator). That loses the pairing but not the answer: a merged run ends at i
+    // exactly when the (i + 1)-th smallest start lies past the i-th smallest end.
+    static long[][] mergeIntervals(long[] starts, long[] ends) {
+        int n = starts.length;
+        if (ends.length != n) throw new IllegalArgumentException("starts and ends differ in length");
+        for (int i = 0; i < n; i++) {
+            if (starts[i] > ends[i]) throw new IllegalArgumentException("start > end at " + i);
+        }
+        long[] s = starts.clone(), e = ends.clone();
+        Arrays.parallelSort(s);
+        Arrays.parallelSort(e);
+        int m = 0; // merged intervals are written back into the front of s and e
+        for (int i = 0, runStart = 0; i < n; i++) {
+            if (i + 1 == n || s[i + 1] > e[i]) {
+                s[m] = s[runStart];
+                e[m++] = e[i];
+                runStart = i + 1;
+            }
+        }
+        return new long[][]{Arrays.copyOf(s, m), Arrays.copyOf(e, m)};
+    }
+
     // 12. Product of Array Except Self (O(n), no division)
     static int[] productExceptSelf(int[] arr) {
         int n = arr.length;
@@ -289,8 +448,25 @@ public class ArrayConcepts {
         reverse(arr, i + 1, arr.length - 1);
     }
 
-    // 15. Subarray Sum Equals K (HashMap, O(n))
+    // 15. Subarray Sum Equals K (primitive IntIntMap, O(n))
     static int subarraySum(int[] arr, int k) {
+        return subarraySum(arr, k, new IntIntMap(arr.length + 1));
+    }
+
+    static int subarraySum(int[] arr, int k, IntIntMap map) {
+        map.clear();
+        map.put(0, 1);
+        int sum = 0, count = 0;
+        for (int n : arr) {
+            sum += n;
+            count += map.get(sum - k, 0);
+            map.addTo(sum, 1);
+        }
+        return count;
+    }
+
+    // 15. Subarray Sum Equals K (boxed HashMap reference version)
+    static int subarraySumBoxed(int[] arr, int k) {
         Map<Integer, Integer> map = new HashMap<>();
         map.put(0, 1);
         int sum = 0, count = 0;
@@ -303,10 +479,10 @@ public class ArrayConcepts {
     }
 
     // 16. Find Missing Number (0 to n)
+    // The sum may wrap around int, but the answer lies in [0, n], so arithmetic mod 2^32 is exact
     static int missingNumber(int[] arr) {
-        int n = arr.length, total = n * (n + 1) / 2;
-        for (int num : arr) total -= num;
-        return total;
+        long n = arr.length;
+        return (int) (n * (n + 1) / 2) - SCANS.sum(arr);
     }
 
     // 17. Find Duplicate Number (Floyd's Tortoise and Hare)
@@ -341,15 +517,70 @@ public class ArrayConcepts {
         return res;
     }
 
-    // 19. Longest Consecutive Sequence (O(n))
+    // 18. Trapping Rain Water, parallel: water over i is min(max left of i, max right of i) - h[i].
+    // A first pass takes every block's maximum; prefix and suffix maxima of those give each block
+    // the tallest walls outside it, and the two-pointer pass then runs per block seeded with them.
+    static long trapParallel(int[] height) {
+        int n = height.length;
+        int blocks = (n + SCAN_BLOCK - 1) / SCAN_BLOCK;
+        int[] blockMax = new int[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int max = 0;
+            for (int i = b * SCAN_BLOCK, end = Math.min(n, i + SCAN_BLOCK); i < end; i++) max = Math.max(max, height[i]);
+            blockMax[b] = max;
+        });
+        int[] wallLeft = new int[blocks], wallRight = new int[blocks];
+        for (int b = 1; b < blocks; b++) wallLeft[b] = Math.max(wallLeft[b - 1], blockMax[b - 1]);
+        for (int b = blocks - 2; b >= 0; b--) wallRight[b] = Math.max(wallRight[b + 1], blockMax[b + 1]);
+        return IntStream.range(0, blocks).parallel().mapToLong(b -> {
+            int l = b * SCAN_BLOCK, r = Math.min(n, l + SCAN_BLOCK) - 1;
+            int leftMax = wallLeft[b], rightMax = wallRight[b];
+            long water = 0;
+            while (l <= r) {
+                if (leftMax < rightMax) {
+                    leftMax = Math.max(leftMax, height[l]);
+                    water += leftMax - height[l++];
+                } else {
+                    rightMax = Math.max(rightMax, height[r]);
+                    water += rightMax - height[r--];
+                }
+            }
+            return water;
+        }).sum();
+    }
+
+    // 19. Longest Consecutive Sequence (primitive IntSet, O(n))
     static int longestConsecutive(int[] arr) {
+        return longestConsecutive(arr, new IntSet(arr.length));
+    }
+
+    static int longestConsecutive(int[] arr, IntSet set) {
+        set.clear();
+        for (int n : arr) set.add(n);
+        int maxLen = 0;
+        for (int n : arr) {
+            // only walk from run starts, and only once per distinct start
+            if ((n == Integer.MIN_VALUE || !set.contains(n - 1)) && set.markVisited(n)) {
+                int curr = n, len = 1;
+                while (curr != Integer.MAX_VALUE && set.contains(curr + 1)) {
+                    curr++;
+                    len++;
+                }
+                maxLen = Math.max(maxLen, len);
+            }
+        }
+        return maxLen;
+    }
+
+    // 19. Longest Consecutive Sequence (boxed HashSet reference version)
+    static int longestConsecutiveBoxed(int[] arr) {
         Set<Integer> set = new HashSet<>();
         for (int n : arr) set.add(n);
         int maxLen = 0;
         for (int n : set) {
-            if (!set.contains(n - 1)) {
+            if (n == Integer.MIN_VALUE || !set.contains(n - 1)) {
                 int curr = n, len = 1;
-                while (set.contains(curr + 1)) {
+                while (curr != Integer.MAX_VALUE && set.contains(curr + 1)) {
                     curr++;
                     len++;
                 }
@@ -359,18 +590,1857 @@ public class ArrayConcepts {
         return maxLen;
     }
 
-    // 20. Sliding Window Maximum (Deque, O(n))
+    // 20. Sliding Window Maximum (monotonic deque of indexes in an int[] ring, O(n), no boxing)
     static int[] maxSlidingWindow(int[] arr, int k) {
-        if (arr.length == 0 || k == 0) return new int[0];
+        if (arr.length == 0 || k == 0 || k > arr.length) return new int[0];
         int n = arr.length;
         int[] res = new int[n - k + 1];
-        Deque<Integer> dq = new ArrayDeque<>();
+        int[] dq = new int[k]; // never holds more than k indexes
+        int head = 0, size = 0;
         for (int i = 0; i < n; i++) {
-            while (!dq.isEmpty() && dq.peekFirst() <= i - k) dq.pollFirst();
-            while (!dq.isEmpty() && arr[dq.peekLast()] < arr[i]) dq.pollLast();
-            dq.offerLast(i);
-            if (i >= k - 1) res[i - k + 1] = arr[dq.peekFirst()];
+            if (size > 0 && dq[head] <= i - k) {
+                head = head + 1 == k ? 0 : head + 1;
+                size--;
+            }
+            while (size > 0 && arr[dq[(head + size - 1) % k]] < arr[i]) size--;
+            dq[(head + size++) % k] = i;
+            if (i >= k - 1) res[i - k + 1] = arr[dq[head]];
+        }
+        return res;
+    }
+
+    // 21. Primitive int -> int hash map: open addressing with linear probing over two int[]
+    // No boxing and no per-entry objects; clear() keeps the arrays so a map can be reused.
+    // Key 0 marks a free slot, so its entry is stored in separate fields.
+    static final class IntIntMap {
+        private int[] keys, values;
+        private int mask, shift, size;
+        private boolean hasZeroKey;
+        private int zeroValue;
+
+        IntIntMap(int expected) {
+            allocate(capacityFor(expected));
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean containsKey(int key) {
+            return key == 0 ? hasZeroKey : slot(key) >= 0;
+        }
+
+        int get(int key, int defaultValue) {
+            if (key == 0) return hasZeroKey ? zeroValue : defaultValue;
+            int i = slot(key);
+            return i >= 0 ? values[i] : defaultValue;
+        }
+
+        void put(int key, int value) {
+            if (key == 0) {
+                if (!hasZeroKey) size++;
+                hasZeroKey = true;
+                zeroValue = value;
+                return;
+            }
+            int i = hash(key);
+            while (keys[i] != 0) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            if (++size > (mask + 1) >> 1) grow();
+        }
+
+        // Adds delta to the value of key (absent keys count as 0) and returns the new value
+        int addTo(int key, int delta) {
+            if (key == 0) {
+                if (!hasZeroKey) {
+                    size++;
+                    zeroValue = 0;
+                }
+                hasZeroKey = true;
+                return zeroValue += delta;
+            }
+            int i = hash(key);
+            while (keys[i] != 0) {
+                if (keys[i] == key) return values[i] += delta;
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = delta;
+            if (++size > (mask + 1) >> 1) grow();
+            return delta;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        boolean remove(int key) {
+            if (key == 0) {
+                if (!hasZeroKey) return false;
+                hasZeroKey = false;
+                size--;
+                return true;
+            }
+            int free = slot(key);
+            if (free < 0) return false;
+            for (int i = (free + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if (((i - hash(keys[i])) & mask) >= ((i - free) & mask)) {
+                    keys[free] = keys[i];
+                    values[free] = values[i];
+                    free = i;
+                }
+            }
+            keys[free] = 0;
+            size--;
+            return true;
+        }
+
+        void clear() {
+            Arrays.fill(keys, 0);
+            hasZeroKey = false;
+            size = 0;
+        }
+
+        private int slot(int key) {
+            for (int i = hash(key); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return i;
+            }
+            return -1;
+        }
+
+        private int hash(int key) {
+            return (key * 0x9E3779B9) >>> shift; // Fibonacci hashing spreads sequential keys
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+            shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        }
+
+        private void grow() {
+            int[] oldKeys = keys, oldValues = values;
+            allocate(keys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == 0) continue;
+                int j = hash(oldKeys[i]);
+                while (keys[j] != 0) j = (j + 1) & mask;
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+
+        static int capacityFor(int expected) {
+            long want = Math.max(4L, 2L * expected); // load factor <= 0.5
+            if (want > 1 << 30) throw new IllegalArgumentException("Too many entries: " + expected);
+            return Integer.highestOneBit((int) want - 1) << 1;
+        }
+    }
+
+    // 21. Primitive int hash set with the same layout as IntIntMap (keys only)
+    // A per-slot visited mark lets longestConsecutive walk each run once even with duplicates.
+    static final class IntSet {
+        private int[] keys;
+        private boolean[] visited;
+        private int mask, shift, size;
+        private boolean hasZero, zeroVisited;
+
+        IntSet(int expected) {
+            allocate(IntIntMap.capacityFor(expected));
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean add(int key) {
+            if (key == 0) {
+                if (hasZero) return false;
+                hasZero = true;
+                size++;
+                return true;
+            }
+            int i = hash(key);
+            while (keys[i] != 0) {
+                if (keys[i] == key) return false;
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            if (++size > (mask + 1) >> 1) grow();
+            return true;
+        }
+
+        boolean contains(int key) {
+            if (key == 0) return hasZero;
+            for (int i = hash(key); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return true;
+            }
+            return false;
+        }
+
+        // Marks a present key as visited; returns false if it was already marked
+        boolean markVisited(int key) {
+            if (key == 0) {
+                boolean first = !zeroVisited;
+                zeroVisited = true;
+                return first;
+            }
+            for (int i = hash(key); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    boolean first = !visited[i];
+                    visited[i] = true;
+                    return first;
+                }
+            }
+            return false;
+        }
+
+        void clear() {
+            Arrays.fill(keys, 0);
+            Arrays.fill(visited, false);
+            hasZero = zeroVisited = false;
+            size = 0;
+        }
+
+        private int hash(int key) {
+            return (key * 0x9E3779B9) >>> shift;
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            visited = new boolean[capacity];
+            mask = capacity - 1;
+            shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            boolean[] oldVisited = visited;
+            allocate(keys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == 0) continue;
+                int j = hash(oldKeys[i]);
+                while (keys[j] != 0) j = (j + 1) & mask;
+                keys[j] = oldKeys[i];
+                visited[j] = oldVisited[i];
+            }
+        }
+    }
+
+    // 21. Boxed vs primitive hashing on random input (a plain timing loop, warm-up rounds first)
+    static void benchmarkHashing(int n) {
+        Random rnd = new Random(42);
+        int[] data = new int[n];
+        for (int i = 0; i < n; i++) data[i] = rnd.nextInt(n) - n / 2;
+        IntIntMap map = new IntIntMap(n + 1);
+        IntSet set = new IntSet(n);
+        for (int round = 0; round < 3; round++) {
+            long sink = 0, t0 = System.nanoTime();
+            sink += subarraySumBoxed(data, 7);
+            long t1 = System.nanoTime();
+            sink += subarraySum(data, 7, map);
+            long t2 = System.nanoTime();
+            sink += longestConsecutiveBoxed(data);
+            long t3 = System.nanoTime();
+            sink += longestConsecutive(data, set);
+            long t4 = System.nanoTime();
+            sink += twoSumBoxed(data, Integer.MIN_VALUE).length;
+            long t5 = System.nanoTime();
+            sink += twoSum(data, Integer.MIN_VALUE, map).length;
+            long t6 = System.nanoTime();
+            System.out.printf("round %d (ms): subarraySum boxed %d / primitive %d, longestConsecutive boxed %d / primitive %d, twoSum boxed %d / primitive %d (sink %d)%n",
+                    round, (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, (t3 - t2) / 1_000_000, (t4 - t3) / 1_000_000,
+                    (t5 - t4) / 1_000_000, (t6 - t5) / 1_000_000, sink);
+        }
+    }
+
+    // 22. Multi-select: the values at several 0-based ranks in one pass (mutates arr)
+    // Selects the middle rank, then recurses into each side with only the ranks that fall there.
+    static int[] selectMany(int[] arr, int... ranks) {
+        for (int k : ranks) Objects.checkIndex(k, arr.length);
+        int[] sorted = ranks.clone();
+        Arrays.sort(sorted);
+        selectRanks(arr, 0, arr.length - 1, sorted, 0, sorted.length - 1);
+        int[] res = new int[ranks.length];
+        for (int i = 0; i < ranks.length; i++) res[i] = arr[ranks[i]];
+        return res;
+    }
+
+    private static void selectRanks(int[] arr, int l, int r, int[] ranks, int lo, int hi) {
+        while (lo <= hi && l < r) {
+            int mid = (lo + hi) >>> 1;
+            int k = ranks[mid];
+            quickSelect(arr, l, r, k);
+            selectRanks(arr, l, k - 1, ranks, lo, mid - 1);
+            l = k + 1; // loop on the right half instead of recursing
+            lo = mid + 1;
+            while (lo <= hi && ranks[lo] == k) lo++;
+        }
+    }
+
+    // 22. Kth smallest (1-based) without touching arr: selects over a pooled scratch copy
+    static int kthSmallestNonMutating(int[] arr, int k) {
+        Objects.checkIndex(k - 1, arr.length); // the pooled buffer may be longer than arr
+        int[] buf = ScratchPool.borrow(arr.length);
+        System.arraycopy(arr, 0, buf, 0, arr.length);
+        return quickSelect(buf, 0, arr.length - 1, k - 1);
+    }
+
+    // 22. Nearest-rank percentiles (e.g. 50, 90, 99) in one multi-select pass, arr untouched
+    static int[] percentiles(int[] arr, double... ps) {
+        int n = arr.length;
+        if (n == 0) throw new NoSuchElementException("empty array");
+        for (double p : ps) {
+            if (!(p >= 0 && p <= 100)) throw new IllegalArgumentException("Percentile must be in [0, 100]: " + p);
+        }
+        int[] buf = ScratchPool.borrow(n);
+        System.arraycopy(arr, 0, buf, 0, n);
+        int[] ranks = new int[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            ranks[i] = Math.min(n - 1, Math.max(0, (int) Math.ceil(ps[i] / 100.0 * n) - 1));
+        }
+        int[] sorted = ranks.clone();
+        Arrays.sort(sorted);
+        selectRanks(buf, 0, n - 1, sorted, 0, sorted.length - 1);
+        int[] res = new int[ps.length];
+        for (int i = 0; i < ps.length; i++) res[i] = buf[ranks[i]];
+        return res;
+    }
+
+    // 22. Per-thread reusable scratch arrays, grown on demand up to MAX_POOLED ints (4 MB) and
+    // never shrunk; larger requests get a fresh array, so one huge call cannot pin its buffer
+    // in every thread for the life of the JVM
+    static final class ScratchPool {
+        static final int MAX_POOLED = 1 << 20;
+        private static final ThreadLocal<int[][]> POOL = ThreadLocal.withInitial(() -> new int[][]{new int[0]});
+
+        static int[] borrow(int n) {
+            if (n > MAX_POOLED) return new int[n];
+            int[][] slot = POOL.get();
+            if (slot[0].length < n) slot[0] = new int[Math.min(MAX_POOLED, Math.max(n, slot[0].length + (slot[0].length >> 1)))];
+            return slot[0];
+        }
+    }
+
+    // Median of 3 samples for small ranges, Tukey's ninther (median of 3 medians of 3) for large ones
+    private static int ninther(int[] arr, int l, int r) {
+        int n = r - l + 1, mid = l + n / 2;
+        if (n < 128) return median3(arr[l], arr[mid], arr[r]);
+        int s = n / 8;
+        return median3(median3(arr[l], arr[l + s], arr[l + 2 * s]),
+                       median3(arr[mid - s], arr[mid], arr[mid + s]),
+                       median3(arr[r - 2 * s], arr[r - s], arr[r]));
+    }
+
+    private static int median3(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    // Deterministic pivot: medians of groups of 5 are gathered at the front, then their median is selected
+    private static int medianOfMedians(int[] arr, int l, int r) {
+        int groups = 0;
+        for (int g = l; g <= r; g += 5) {
+            int end = Math.min(g + 4, r);
+            insertionSort(arr, g, end);
+            int m = g + (end - g) / 2;
+            int tmp = arr[m]; arr[m] = arr[l + groups]; arr[l + groups] = tmp;
+            groups++;
+        }
+        return quickSelect(arr, l, l + groups - 1, l + (groups - 1) / 2);
+    }
+
+    // Dutch national flag partition: < pivot | == pivot | > pivot, returns (lt << 32) | gt
+    private static long partition3(int[] arr, int l, int r, int pivot) {
+        int lt = l, i = l, gt = r;
+        while (i <= gt) {
+            int v = arr[i];
+            if (v < pivot) {
+                arr[i++] = arr[lt];
+                arr[lt++] = v;
+            } else if (v > pivot) {
+                arr[i] = arr[gt];
+                arr[gt--] = v;
+            } else {
+                i++;
+            }
+        }
+        return ((long) lt << 32) | (gt & 0xFFFFFFFFL);
+    }
+
+    private static void insertionSort(int[] arr, int l, int r) {
+        for (int i = l + 1; i <= r; i++) {
+            int v = arr[i], j = i - 1;
+            while (j >= l && arr[j] > v) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = v;
+        }
+    }
+
+    // 23. Parallel Prefix Sum (inclusive, long accumulation so large sums do not overflow)
+    // Work-efficient blocked scan: block totals in parallel, a short sequential scan over the
+    // totals, then every block is rescanned in parallel from its offset (2n reads in total).
+    static long[] prefixSumParallel(int[] arr) {
+        int n = arr.length;
+        long[] ps = new long[n];
+        int blocks = (n + SCAN_BLOCK - 1) / SCAN_BLOCK;
+        long[] offsets = new long[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            long sum = 0;
+            for (int i = b * SCAN_BLOCK, end = Math.min(n, i + SCAN_BLOCK); i < end; i++) sum += arr[i];
+            offsets[b] = sum;
+        });
+        exclusiveScan(offsets);
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            long sum = offsets[b];
+            for (int i = b * SCAN_BLOCK, end = Math.min(n, i + SCAN_BLOCK); i < end; i++) ps[i] = sum += arr[i];
+        });
+        return ps;
+    }
+
+    static long[] prefixSumParallel(long[] arr) {
+        int n = arr.length;
+        long[] ps = new long[n];
+        int blocks = (n + SCAN_BLOCK - 1) / SCAN_BLOCK;
+        long[] offsets = new long[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            long sum = 0;
+            for (int i = b * SCAN_BLOCK, end = Math.min(n, i + SCAN_BLOCK); i < end; i++) sum += arr[i];
+            offsets[b] = sum;
+        });
+        exclusiveScan(offsets);
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            long sum = offsets[b];
+            for (int i = b * SCAN_BLOCK, end = Math.min(n, i + SCAN_BLOCK); i < end; i++) ps[i] = sum += arr[i];
+        });
+        return ps;
+    }
+
+    static final int SCAN_BLOCK = 1 << 16; // 256-512 KB per block, about one L2 cache
+
+    private static void exclusiveScan(long[] a) {
+        long running = 0;
+        for (int i = 0; i < a.length; i++) {
+            long v = a[i];
+            a[i] = running;
+            running += v;
+        }
+    }
+
+    // 23. Fenwick Tree (Binary Indexed Tree): O(log n) point update and range sum, 0-based API
+    // For mixed update/query workloads where rebuilding a prefix array each time is O(n).
+    static final class FenwickTree {
+        private final long[] tree; // 1-based: tree[i] covers (i - lowbit(i), i]
+        private final long[] values;
+
+        FenwickTree(int n) {
+            tree = new long[n + 1];
+            values = new long[n];
+        }
+
+        // O(n) build: each node pushes its total to its parent once
+        FenwickTree(int[] arr) {
+            this(arr.length);
+            for (int i = 0; i < arr.length; i++) {
+                values[i] = arr[i];
+                tree[i + 1] += arr[i];
+                int parent = (i + 1) + ((i + 1) & -(i + 1));
+                if (parent <= arr.length) tree[parent] += tree[i + 1];
+            }
+        }
+
+        int size() {
+            return values.length;
+        }
+
+        void add(int i, long delta) {
+            values[i] += delta;
+            for (int j = i + 1; j < tree.length; j += j & -j) tree[j] += delta;
+        }
+
+        void set(int i, long value) {
+            add(i, value - values[i]);
+        }
+
+        long get(int i) {
+            return values[i];
+        }
+
+        // Sum of elements [0, i]
+        long prefixSum(int i) {
+            long sum = 0;
+            for (int j = i + 1; j > 0; j -= j & -j) sum += tree[j];
+            return sum;
+        }
+
+        // Sum of elements [l, r]
+        long rangeSum(int l, int r) {
+            return prefixSum(r) - (l > 0 ? prefixSum(l - 1) : 0);
+        }
+    }
+
+    // 24. Streaming Sliding Window Max/Min
+    // Push-based operator for unbounded feeds: the monotonic deque lives in two long[] ring
+    // buffers (values and their positions), so pushes allocate nothing. Count windows hold
+    // the last k values and never grow; time windows hold the values with timestamp in
+    // (now - span, now] and double their rings only when more values are live at once.
+    static final class SlidingWindowExtremum {
+        private final boolean max;
+        private final boolean timeBased;
+        private final long span; // k for count windows, duration for time windows
+        private long[] values, stamps;
+        private int mask, head, size;
+        private long seen;
+
+        private SlidingWindowExtremum(boolean max, boolean timeBased, long span, int capacity) {
+            if (span <= 0) throw new IllegalArgumentException("Window must be positive: " + span);
+            this.max = max;
+            this.timeBased = timeBased;
+            this.span = span;
+            int cap = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+            this.values = new long[cap];
+            this.stamps = new long[cap];
+            this.mask = cap - 1;
+        }
+
+        static SlidingWindowExtremum maxOverCount(int k) {
+            return new SlidingWindowExtremum(true, false, k, k);
+        }
+
+        static SlidingWindowExtremum minOverCount(int k) {
+            return new SlidingWindowExtremum(false, false, k, k);
+        }
+
+        static SlidingWindowExtremum maxOverTime(long span) {
+            return new SlidingWindowExtremum(true, true, span, 64);
+        }
+
+        static SlidingWindowExtremum minOverTime(long span) {
+            return new SlidingWindowExtremum(false, true, span, 64);
+        }
+
+        // Count window: pushes the next value and returns the extreme of the last k values
+        long push(long value) {
+            if (timeBased) throw new IllegalStateException("Time window needs a timestamp");
+            return offer(value, seen);
+        }
+
+        // Time window: timestamps must not decrease; returns the extreme over (timestamp - span, timestamp]
+        long push(long value, long timestamp) {
+            if (!timeBased) throw new IllegalStateException("Count window takes no timestamp");
+            return offer(value, timestamp);
+        }
+
+        // Batch for count windows: writes one result per full window into out, returns how many
+        int pushAll(int[] batch, int from, int to, long[] out, int outPos) {
+            int written = 0;
+            for (int i = from; i < to; i++) {
+                long m = push(batch[i]);
+                if (isFull()) out[outPos + written++] = m;
+            }
+            return written;
+        }
+
+        int pushAll(long[] batch, int from, int to, long[] out, int outPos) {
+            int written = 0;
+            for (int i = from; i < to; i++) {
+                long m = push(batch[i]);
+                if (isFull()) out[outPos + written++] = m;
+            }
+            return written;
+        }
+
+        // Batch for time windows: writes the extreme after every value into out
+        void pushAll(long[] batch, long[] timestamps, int from, int to, long[] out, int outPos) {
+            for (int i = from; i < to; i++) out[outPos + i - from] = push(batch[i], timestamps[i]);
+        }
+
+        // For count windows, true once k values have been pushed
+        boolean isFull() {
+            return timeBased || seen >= span;
+        }
+
+        long current() {
+            if (size == 0) throw new NoSuchElementException("Empty window");
+            return values[head];
+        }
+
+        void clear() {
+            head = size = 0;
+            seen = 0;
+        }
+
+        private long offer(long value, long stamp) {
+            long oldest = stamp - span; // entries at or before this position/time have left the window
+            while (size > 0 && stamps[head] <= oldest) {
+                head = (head + 1) & mask;
+                size--;
+            }
+            while (size > 0) {
+                long back = values[(head + size - 1) & mask];
+                if (max ? back > value : back < value) break;
+                size--;
+            }
+            if (size == values.length) grow();
+            int tail = (head + size++) & mask;
+            values[tail] = value;
+            stamps[tail] = stamp;
+            seen++;
+            return values[head];
+        }
+
+        private void grow() {
+            int cap = values.length;
+            long[] v = new long[cap * 2], t = new long[cap * 2];
+            for (int i = 0; i < size; i++) {
+                v[i] = values[(head + i) & mask];
+                t[i] = stamps[(head + i) & mask];
+            }
+            values = v;
+            stamps = t;
+            mask = cap * 2 - 1;
+            head = 0;
+        }
+    }
+
+    // 25. Sliding Window Median (average of the two middle values for even k)
+    static double[] medianSlidingWindow(int[] arr, int k) {
+        if (k <= 0 || k > arr.length) return new double[0];
+        double[] res = new double[arr.length - k + 1];
+        SlidingWindowQuantile window = new SlidingWindowQuantile(k, 0.5);
+        for (int i = 0; i < arr.length; i++) {
+            window.push(arr[i]);
+            if (i >= k - 1) res[i - k + 1] = window.median();
+        }
+        return res;
+    }
+
+    // 25. Sliding Window Quantile: the value at rank floor(q * (k - 1)) of every window
+    static int[] quantileSlidingWindow(int[] arr, int k, double q) {
+        if (k <= 0 || k > arr.length) return new int[0];
+        int[] res = new int[arr.length - k + 1];
+        SlidingWindowQuantile window = new SlidingWindowQuantile(k, q);
+        for (int i = 0; i < arr.length; i++) {
+            window.push(arr[i]);
+            if (i >= k - 1) res[i - k + 1] = window.quantile();
         }
         return res;
     }
+
+    // 25. Streaming sliding-window quantile over the last k values
+    // A max-heap holds the lowest rank + 1 values of the window and a min-heap the rest.
+    // Entries are long keys (value << 32 | arrival index), so equal values stay distinct and
+    // an entry is stale exactly when its index has left the window: evicted entries are only
+    // counted out and physically dropped once they reach a heap top (lazy deletion), or when
+    // a heap holds twice as many entries as live ones. Everything is primitive arrays.
+    static final class SlidingWindowQuantile {
+        private final int k;
+        private final double q;
+        private final long[] ring;   // keys of the last k pushes, to know what leaves
+        private final LongHeap lower = new LongHeap(true), upper = new LongHeap(false);
+        private int lowerLive, upperLive;
+        private long count;
+
+        SlidingWindowQuantile(int k, double q) {
+            if (k <= 0 || q < 0 || q > 1) throw new IllegalArgumentException("Need k > 0 and 0 <= q <= 1");
+            this.k = k;
+            this.q = q;
+            this.ring = new long[k];
+        }
+
+        void push(int value) {
+            int slot = (int) (count % k);
+            if (count >= k) {
+                if (ring[slot] <= lower.top()) lowerLive--;
+                else upperLive--;
+            }
+            long key = ((long) value << 32) | (count & 0xFFFFFFFFL);
+            ring[slot] = key;
+            count++;
+            prune(lower);
+            prune(upper);
+            boolean toLower = lowerLive > 0 ? key <= lower.top() : upperLive == 0 || key < upper.top();
+            if (toLower) {
+                lower.push(key);
+                lowerLive++;
+            } else {
+                upper.push(key);
+                upperLive++;
+            }
+            int window = (int) Math.min(count, k);
+            int target = (int) Math.floor(q * (window - 1)) + 1;
+            while (lowerLive > target) {
+                upper.push(lower.pop());
+                lowerLive--;
+                upperLive++;
+                prune(lower);
+            }
+            while (lowerLive < target) {
+                lower.push(upper.pop());
+                upperLive--;
+                lowerLive++;
+                prune(upper);
+            }
+            if (lower.size > 2 * lowerLive + 16) compact(lower);
+            if (upper.size > 2 * upperLive + 16) compact(upper);
+        }
+
+        // Value at rank floor(q * (w - 1)) of the current window of w = min(count, k) values
+        int quantile() {
+            if (count == 0) throw new NoSuchElementException("Empty window");
+            return (int) (lower.top() >> 32);
+        }
+
+        // Median of the current window (mean of the two middle values when its size is even)
+        double median() {
+            int window = (int) Math.min(count, k);
+            int low = quantile();
+            if ((window & 1) == 1 || q != 0.5) return low;
+            return ((double) low + (double) (int) (upper.top() >> 32)) / 2.0;
+        }
+
+        private boolean isStale(long key) {
+            return (((count - 1) - key) & 0xFFFFFFFFL) >= k; // age of the entry, modulo 2^32
+        }
+
+        private void prune(LongHeap heap) {
+            while (heap.size > 0 && isStale(heap.top())) heap.pop();
+        }
+
+        private void compact(LongHeap heap) {
+            int kept = 0;
+            for (int i = 0; i < heap.size; i++) {
+                if (!isStale(heap.a[i])) heap.a[kept++] = heap.a[i];
+            }
+            heap.size = kept;
+            heap.heapify();
+        }
+    }
+
+    // Binary heap of longs (max-heap or min-heap), backing array grows by doubling
+    static final class LongHeap {
+        private final boolean max;
+        long[] a = new long[16];
+        int size;
+
+        LongHeap(boolean max) {
+            this.max = max;
+        }
+
+        long top() {
+            return size > 0 ? a[0] : (max ? Long.MIN_VALUE : Long.MAX_VALUE);
+        }
+
+        void push(long v) {
+            if (size == a.length) a = Arrays.copyOf(a, size * 2);
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(v, a[parent])) break;
+                a[i] = a[parent];
+                i = parent;
+            }
+            a[i] = v;
+        }
+
+        long pop() {
+            long top = a[0];
+            long last = a[--size];
+            if (size > 0) siftDown(0, last);
+            return top;
+        }
+
+        void heapify() {
+            for (int i = (size >>> 1) - 1; i >= 0; i--) siftDown(i, a[i]);
+        }
+
+        private void siftDown(int i, long v) {
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && before(a[child + 1], a[child])) child++;
+                if (!before(a[child], v)) break;
+                a[i] = a[child];
+                i = child;
+            }
+            a[i] = v;
+        }
+
+        private boolean before(long x, long y) {
+            return max ? x > y : x < y;
+        }
+    }
+
+    // 26. Eytzinger Search Index over a sorted int[]
+    // The keys are re-laid in BFS order (children of node k at 2k and 2k + 1), so the first
+    // levels of every search share a few cache lines and the descent k = 2k + (key < x) has no
+    // unpredictable branch. Java has no prefetch intrinsic, so searchAll instead interleaves
+    // BATCH lookups level by level: their cache misses overlap instead of queuing one by one.
+    // Results are indexes into the original sorted array.
+    static final class EytzingerIndex {
+        private static final int BATCH = 16;
+        private final int[] keys; // 1-based BFS layout
+        private final int[] rank;  // rank[k] = index of keys[k] in the sorted input
+        private final int n, fullLevels;
+
+        EytzingerIndex(int[] sorted) {
+            n = sorted.length;
+            keys = new int[n + 1];
+            rank = new int[n + 1];
+            fill(sorted, 0, 1);
+            fullLevels = 31 - Integer.numberOfLeadingZeros(n + 1); // levels with no missing node
+        }
+
+        // In-order walk of the implicit tree assigns sorted positions; returns the next position
+        private int fill(int[] sorted, int i, int k) {
+            if (k <= n) {
+                i = fill(sorted, i, 2 * k);
+                keys[k] = sorted[i];
+                rank[k] = i++;
+                i = fill(sorted, i, 2 * k + 1);
+            }
+            return i;
+        }
+
+        int size() {
+            return n;
+        }
+
+        // Index of the first key >= x, or size() if there is none
+        int lowerBound(int x) {
+            return toRank(lowerSlot(x));
+        }
+
+        // Index of the first key > x, or size() if there is none
+        int upperBound(int x) {
+            int k = 1;
+            while (k <= n) k = 2 * k + (keys[k] <= x ? 1 : 0);
+            return toRank(slot(k));
+        }
+
+        // Index of some key equal to x (the first one), or -1
+        int search(int x) {
+            int k = lowerSlot(x);
+            return k != 0 && keys[k] == x ? rank[k] : -1;
+        }
+
+        // Batched search: indexes of the queries (-1 when absent)
+        int[] searchAll(int[] queries) {
+            int[] res = lowerSlotAll(queries);
+            for (int q = 0; q < res.length; q++) {
+                int k = res[q];
+                res[q] = k != 0 && keys[k] == queries[q] ? rank[k] : -1;
+            }
+            return res;
+        }
+
+        // Batched lowerBound
+        int[] lowerBoundAll(int[] queries) {
+            int[] res = lowerSlotAll(queries);
+            for (int q = 0; q < res.length; q++) res[q] = toRank(res[q]);
+            return res;
+        }
+
+        // Slot in keys of the first key >= x, or 0 if there is none
+        private int lowerSlot(int x) {
+            int k = 1;
+            while (k <= n) k = 2 * k + (keys[k] < x ? 1 : 0);
+            return slot(k);
+        }
+
+        // Batched lowerSlot: BATCH descents advance together one level at a time
+        private int[] lowerSlotAll(int[] queries) {
+            int[] res = new int[queries.length];
+            int[] k = new int[BATCH];
+            for (int from = 0; from < queries.length; from += BATCH) {
+                int m = Math.min(BATCH, queries.length - from);
+                Arrays.fill(k, 0, m, 1);
+                for (int level = 0; level < fullLevels; level++) {
+                    for (int j = 0; j < m; j++) k[j] = 2 * k[j] + (keys[k[j]] < queries[from + j] ? 1 : 0);
+                }
+                for (int j = 0; j < m; j++) {
+                    if (k[j] <= n) k[j] = 2 * k[j] + (keys[k[j]] < queries[from + j] ? 1 : 0);
+                    res[from + j] = slot(k[j]);
+                }
+            }
+            return res;
+        }
+
+        // Undo the trailing "went right" steps plus the last "went left": that node is the answer,
+        // or 0 when the descent only ever went right
+        private static int slot(int k) {
+            return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+        }
+
+        private int toRank(int slot) {
+            return slot == 0 ? n : rank[slot];
+        }
+    }
+
+    // 26. Eytzinger Search Index over a sorted long[] (same layout as EytzingerIndex)
+    static final class LongEytzingerIndex {
+        private static final int BATCH = 16;
+        private final long[] keys; // 1-based BFS layout
+        private final int[] rank;  // rank[k] = index of keys[k] in the sorted input
+        private final int n, fullLevels;
+
+        LongEytzingerIndex(long[] sorted) {
+            n = sorted.length;
+            keys = new long[n + 1];
+            rank = new int[n + 1];
+            fill(sorted, 0, 1);
+            fullLevels = 31 - Integer.numberOfLeadingZeros(n + 1); // levels with no missing node
+        }
+
+        // In-order walk of the implicit tree assigns sorted positions; returns the next position
+        private int fill(long[] sorted, int i, int k) {
+            if (k <= n) {
+                i = fill(sorted, i, 2 * k);
+                keys[k] = sorted[i];
+                rank[k] = i++;
+                i = fill(sorted, i, 2 * k + 1);
+            }
+            return i;
+        }
+
+        int size() {
+            return n;
+        }
+
+        // Index of the first key >= x, or size() if there is none
+        int lowerBound(long x) {
+            return toRank(lowerSlot(x));
+        }
+
+        // Index of the first key > x, or size() if there is none
+        int upperBound(long x) {
+            int k = 1;
+            while (k <= n) k = 2 * k + (keys[k] <= x ? 1 : 0);
+            return toRank(slot(k));
+        }
+
+        // Index of some key equal to x (the first one), or -1
+        int search(long x) {
+            int k = lowerSlot(x);
+            return k != 0 && keys[k] == x ? rank[k] : -1;
+        }
+
+        // Batched search: indexes of the queries (-1 when absent)
+        int[] searchAll(long[] queries) {
+            int[] res = lowerSlotAll(queries);
+            for (int q = 0; q < res.length; q++) {
+                int k = res[q];
+                res[q] = k != 0 && keys[k] == queries[q] ? rank[k] : -1;
+            }
+            return res;
+        }
+
+        // Batched lowerBound
+        int[] lowerBoundAll(long[] queries) {
+            int[] res = lowerSlotAll(queries);
+            for (int q = 0; q < res.length; q++) res[q] = toRank(res[q]);
+            return res;
+        }
+
+        // Slot in keys of the first key >= x, or 0 if there is none
+        private int lowerSlot(long x) {
+            int k = 1;
+            while (k <= n) k = 2 * k + (keys[k] < x ? 1 : 0);
+            return slot(k);
+        }
+
+        // Batched lowerSlot: BATCH descents advance together one level at a time
+        private int[] lowerSlotAll(long[] queries) {
+            int[] res = new int[queries.length];
+            int[] k = new int[BATCH];
+            for (int from = 0; from < queries.length; from += BATCH) {
+                int m = Math.min(BATCH, queries.length - from);
+                Arrays.fill(k, 0, m, 1);
+                for (int level = 0; level < fullLevels; level++) {
+                    for (int j = 0; j < m; j++) k[j] = 2 * k[j] + (keys[k[j]] < queries[from + j] ? 1 : 0);
+                }
+                for (int j = 0; j < m; j++) {
+                    if (k[j] <= n) k[j] = 2 * k[j] + (keys[k[j]] < queries[from + j] ? 1 : 0);
+                    res[from + j] = slot(k[j]);
+                }
+            }
+            return res;
+        }
+
+        // Undo the trailing "went right" steps plus the last "went left": that node is the answer,
+        // or 0 when the descent only ever went right
+        private static int slot(int k) {
+            return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+        }
+
+        private int toRank(int slot) {
+            return slot == 0 ? n : rank[slot];
+        }
+    }
+
+    // 27. Interval Tree: closed intervals [start, end] in a treap ordered by (start, id), every node
+    // augmented with the largest end in its subtree so queries skip subtrees that end too early.
+    // Nodes live in parallel primitive arrays; add returns the node id used to remove the interval
+    // later, and ids of removed intervals are recycled. O(log n) expected per update, and
+    // O(log n + hits) per query.
+    static final class IntervalTree {
+        private long[] start = new long[16], end = new long[16], maxEnd = new long[16];
+        private int[] left = new int[16], right = new int[16], prio = new int[16];
+        private int root, size, used = 1, freeList; // node 0 is the null node
+        private int seed = 0x9E3779B9;
+        private int splitLeft, splitRight;
+
+        int size() {
+            return size;
+        }
+
+        long start(int id) {
+            return start[id];
+        }
+
+        long end(int id) {
+            return end[id];
+        }
+
+        int add(long s, long e) {
+            if (s > e) throw new IllegalArgumentException("start > end");
+            int id = newNode(s, e);
+            split(root, s, id);
+            root = merge(merge(splitLeft, id), splitRight);
+            size++;
+            return id;
+        }
+
+        boolean remove(int id) {
+            if (id <= 0 || id >= used || prio[id] == 0) return false; // unknown or already removed
+            split(root, start[id], id);
+            int l = splitLeft;
+            split(splitRight, start[id], id + 1);
+            root = merge(l, splitRight);
+            prio[id] = 0;
+            left[id] = freeList; // free nodes are chained through left[]
+            freeList = id;
+            size--;
+            return true;
+        }
+
+        // Calls action with the id of every interval that overlaps [lo, hi], in start order
+        void forEachOverlapping(long lo, long hi, IntConsumer action) {
+            visit(root, lo, hi, action);
+        }
+
+        int countOverlapping(long lo, long hi) {
+            int[] count = new int[1];
+            visit(root, lo, hi, id -> count[0]++);
+            return count[0];
+        }
+
+        // Ids of the intervals overlapping [lo, hi]; pass lo == hi for a stabbing query
+        int[] overlapping(long lo, long hi) {
+            int[][] buf = {new int[8]};
+            int[] n = new int[1];
+            visit(root, lo, hi, id -> {
+                if (n[0] == buf[0].length) buf[0] = Arrays.copyOf(buf[0], n[0] * 2);
+                buf[0][n[0]++] = id;
+            });
+            return Arrays.copyOf(buf[0], n[0]);
+        }
+
+        boolean stabs(long point) {
+            int t = root;
+            while (t != 0 && maxEnd[t] >= point) {
+                if (start[t] <= point && end[t] >= point) return true;
+                // the left subtree can reach point only if its max end does; otherwise go right
+                t = left[t] != 0 && maxEnd[left[t]] >= point ? left[t] : start[t] <= point ? right[t] : 0;
+            }
+            return false;
+        }
+
+        private void visit(int t, long lo, long hi, IntConsumer action) {
+            while (t != 0 && maxEnd[t] >= lo) {
+                visit(left[t], lo, hi, action);
+                if (start[t] > hi) return; // everything to the right starts later still
+                if (end[t] >= lo) action.accept(t);
+                t = right[t];
+            }
+        }
+
+        private int newNode(long s, long e) {
+            int id;
+            if (freeList != 0) {
+                id = freeList;
+                freeList = left[id];
+            } else {
+                if (used == start.length) grow();
+                id = used++;
+            }
+            seed ^= seed << 13; // xorshift priorities keep the treap balanced in expectation
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            start[id] = s;
+            end[id] = e;
+            maxEnd[id] = e;
+            left[id] = right[id] = 0;
+            prio[id] = seed | 1; // never 0, which marks free nodes
+            return id;
+        }
+
+        private void grow() {
+            int cap = start.length * 2;
+            start = Arrays.copyOf(start, cap);
+            end = Arrays.copyOf(end, cap);
+            maxEnd = Arrays.copyOf(maxEnd, cap);
+            left = Arrays.copyOf(left, cap);
+            right = Arrays.copyOf(right, cap);
+            prio = Arrays.copyOf(prio, cap);
+        }
+
+        // Splits t into keys < (s, id) and keys >= (s, id), left in splitLeft / splitRight
+        private void split(int t, long s, int id) {
+            if (t == 0) {
+                splitLeft = splitRight = 0;
+            } else if (start[t] < s || (start[t] == s && t < id)) {
+                split(right[t], s, id);
+                right[t] = splitLeft;
+                pull(t);
+                splitLeft = t;
+            } else {
+                split(left[t], s, id);
+                left[t] = splitRight;
+                pull(t);
+                splitRight = t;
+            }
+        }
+
+        // Joins two treaps where every key of a precedes every key of b
+        private int merge(int a, int b) {
+            if (a == 0 || b == 0) return a | b;
+            if (Integer.compareUnsigned(prio[a], prio[b]) > 0) {
+                right[a] = merge(right[a], b);
+                pull(a);
+                return a;
+            }
+            left[b] = merge(a, left[b]);
+            pull(b);
+            return b;
+        }
+
+        private void pull(int t) {
+            long m = end[t];
+            if (left[t] != 0) m = Math.max(m, maxEnd[left[t]]);
+            if (right[t] != 0) m = Math.max(m, maxEnd[right[t]]);
+            maxEnd[t] = m;
+        }
+    }
+
+    // 28. SIMD Scan Tier: findMin/findMax, missingNumber, reverseArray and moveZeroes run on
+    // SCANS, which is ArrayVectorKernels (jdk.incubator.vector) when that class and module are
+    // present, else the scalar loops below. ArrayVectorKernels sits in vector/, outside the
+    // default build, and needs --add-modules jdk.incubator.vector to compile and run (see there).
+    interface IntScanKernels {
+        String name();
+
+        int min(int[] arr);
+
+        int max(int[] arr);
+
+        int sum(int[] arr); // wraps on overflow
+
+        void reverse(int[] arr);
+
+        void moveZeroes(int[] arr);
+    }
+
+    static final IntScanKernels SCALAR_SCANS = new ScalarScanKernels();
+    static final IntScanKernels SCANS = loadScanKernels();
+
+    private static IntScanKernels loadScanKernels() {
+        try {
+            return (IntScanKernels) Class.forName("ArrayVectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) { // not compiled, or module not added
+            return SCALAR_SCANS;
+        }
+    }
+
+    static final class ScalarScanKernels implements IntScanKernels {
+        @Override
+        public String name() {
+            return "scalar";
+        }
+
+        @Override
+        public int min(int[] arr) {
+            int min = Integer.MAX_VALUE;
+            for (int n : arr) min = Math.min(min, n);
+            return min;
+        }
+
+        @Override
+        public int max(int[] arr) {
+            int max = Integer.MIN_VALUE;
+            for (int n : arr) max = Math.max(max, n);
+            return max;
+        }
+
+        @Override
+        public int sum(int[] arr) {
+            int sum = 0;
+            for (int n : arr) sum += n;
+            return sum;
+        }
+
+        @Override
+        public void reverse(int[] arr) {
+            int l = 0, r = arr.length - 1;
+            while (l < r) {
+                int tmp = arr[l]; arr[l] = arr[r]; arr[r] = tmp;
+                l++; r--;
+            }
+        }
+
+        @Override
+        public void moveZeroes(int[] arr) {
+            int idx = 0;
+            for (int i = 0; i < arr.length; i++) {
+                if (arr[i] != 0) arr[idx++] = arr[i];
+            }
+            while (idx < arr.length) arr[idx++] = 0;
+        }
+    }
+
+    // 28. Scalar vs active scan tier: best-of-rounds throughput in ints per nanosecond
+    static void benchmarkScans(int n) {
+        Random rnd = new Random(42);
+        int[] data = new int[n], work = new int[n];
+        for (int i = 0; i < n; i++) data[i] = rnd.nextInt(4) == 0 ? 0 : rnd.nextInt();
+        String[] ops = {"min", "max", "sum", "reverse", "moveZeroes"};
+        IntScanKernels[] tiers = {SCALAR_SCANS, SCANS};
+        long sink = 0;
+        for (String op : ops) {
+            double[] best = new double[tiers.length];
+            for (int round = 0; round < 15; round++) {
+                for (int t = 0; t < tiers.length; t++) {
+                    IntScanKernels k = tiers[t];
+                    System.arraycopy(data, 0, work, 0, n);
+                    long t0 = System.nanoTime();
+                    switch (op) {
+                        case "min": sink += k.min(work); break;
+                        case "max": sink += k.max(work); break;
+                        case "sum": sink += k.sum(work); break;
+                        case "reverse": k.reverse(work); sink += work[0]; break;
+                        default: k.moveZeroes(work); sink += work[n - 1]; break;
+                    }
+                    best[t] = Math.max(best[t], (double) n / (System.nanoTime() - t0));
+                }
+            }
+            System.out.printf("%-10s scalar %.2f / %s %.2f ints/ns (x%.1f)%n",
+                    op, best[0], SCANS.name(), best[1], best[1] / best[0]);
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+    // 29. IntSequence: a read-only int sequence with long indexes, so inputs are not capped at
+    // 2^31 elements. MappedIntSequence maps a binary file of raw ints and reads it in place.
+    interface IntSequence {
+        long length();
+
+        int get(long i);
+
+        static IntSequence of(int[] arr) {
+            return new IntSequence() {
+                @Override
+                public long length() {
+                    return arr.length;
+                }
+
+                @Override
+                public int get(long i) {
+                    return arr[(int) i];
+                }
+            };
+        }
+    }
+
+    // 29. A file of 4-byte ints, mapped in 1 GB read-only chunks. Nothing is copied onto the heap;
+    // the OS pages the file in as the algorithms scan it.
+    static final class MappedIntSequence implements IntSequence, AutoCloseable {
+        private static final int CHUNK_SHIFT = 28; // ints per chunk: 2^28 = 1 GB
+        private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+        private final long length;
+        private IntBuffer[] chunks;
+
+        private MappedIntSequence(long length, IntBuffer[] chunks) {
+            this.length = length;
+            this.chunks = chunks;
+        }
+
+        static MappedIntSequence open(Path file, ByteOrder order) throws IOException {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                long bytes = ch.size();
+                if ((bytes & 3) != 0) throw new IOException("Size of " + file + " is not a multiple of 4 bytes");
+                long length = bytes >>> 2;
+                IntBuffer[] chunks = new IntBuffer[(int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT)];
+                for (int i = 0; i < chunks.length; i++) {
+                    long start = (long) i << CHUNK_SHIFT;
+                    long ints = Math.min(1L << CHUNK_SHIFT, length - start);
+                    chunks[i] = ch.map(FileChannel.MapMode.READ_ONLY, start << 2, ints << 2).order(order).asIntBuffer();
+                }
+                return new MappedIntSequence(length, chunks);
+            }
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public int get(long i) {
+            if (i < 0 || i >= length) throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + length);
+            return chunks[(int) (i >>> CHUNK_SHIFT)].get((int) (i & CHUNK_MASK));
+        }
+
+        // Drops the mappings; the OS unmaps them once the buffers are collected
+        @Override
+        public void close() {
+            chunks = null;
+        }
+    }
+
+    // 29. Find Minimum / Maximum over an IntSequence
+    static int findMin(IntSequence seq) {
+        if (seq.length() == 0) throw new NoSuchElementException("empty sequence");
+        int min = Integer.MAX_VALUE;
+        for (long i = 0, n = seq.length(); i < n; i++) min = Math.min(min, seq.get(i));
+        return min;
+    }
+
+    static int findMax(IntSequence seq) {
+        if (seq.length() == 0) throw new NoSuchElementException("empty sequence");
+        int max = Integer.MIN_VALUE;
+        for (long i = 0, n = seq.length(); i < n; i++) max = Math.max(max, seq.get(i));
+        return max;
+    }
+
+    // 29. Kadane's Algorithm over an IntSequence (long sums)
+    static long maxSubArray(IntSequence seq) {
+        if (seq.length() == 0) throw new NoSuchElementException("empty sequence");
+        long maxSoFar = seq.get(0), maxEndingHere = maxSoFar;
+        for (long i = 1, n = seq.length(); i < n; i++) {
+            int v = seq.get(i);
+            maxEndingHere = Math.max(v, maxEndingHere + v);
+            maxSoFar = Math.max(maxSoFar, maxEndingHere);
+        }
+        return maxSoFar;
+    }
+
+    // 29. Prefix Sum over an IntSequence: the running sums are streamed to sink, not stored
+    static void prefixSum(IntSequence seq, LongConsumer sink) {
+        long sum = 0;
+        for (long i = 0, n = seq.length(); i < n; i++) sink.accept(sum += seq.get(i));
+    }
+
+    // 29. Trapping Rain Water over an IntSequence (two pointers, long indexes and total)
+    static long trap(IntSequence height) {
+        long l = 0, r = height.length() - 1, res = 0;
+        int leftMax = 0, rightMax = 0;
+        while (l < r) {
+            int hl = height.get(l), hr = height.get(r);
+            if (hl < hr) {
+                if (hl >= leftMax) leftMax = hl;
+                else res += leftMax - hl;
+                l++;
+            } else {
+                if (hr >= rightMax) rightMax = hr;
+                else res += rightMax - hr;
+                r--;
+            }
+        }
+        return res;
+    }
+
+    // 29. Majority Element over an IntSequence: Boyer-Moore, then a second pass to confirm the
+    // candidate really occurs more than length / 2 times (empty when there is no majority)
+    static OptionalInt majorityElement(IntSequence seq) {
+        long n = seq.length(), count = 0;
+        int candidate = 0;
+        for (long i = 0; i < n; i++) {
+            int v = seq.get(i);
+            if (count == 0) candidate = v;
+            count += (v == candidate) ? 1 : -1;
+        }
+        count = 0;
+        for (long i = 0; i < n; i++) {
+            if (seq.get(i) == candidate) count++;
+        }
+        return count > n / 2 ? OptionalInt.of(candidate) : OptionalInt.empty();
+    }
+
+    // 29. Sliding Window Maximum over an IntSequence: the n - k + 1 maxima go to sink
+    static void maxSlidingWindow(IntSequence seq, int k, IntConsumer sink) {
+        SlidingWindowExtremum window = SlidingWindowExtremum.maxOverCount(k);
+        for (long i = 0, n = seq.length(); i < n; i++) {
+            long max = window.push(seq.get(i));
+            if (i >= k - 1) sink.accept((int) max);
+        }
+    }
+
+    // 29. Binary Search over a sorted IntSequence: an index of target, or -1
+    static long binarySearch(IntSequence seq, int target) {
+        long l = 0, r = seq.length() - 1;
+        while (l <= r) {
+            long m = (l + r) >>> 1;
+            int v = seq.get(m);
+            if (v == target) return m;
+            if (v < target) l = m + 1;
+            else r = m - 1;
+        }
+        return -1;
+    }
+
+    // 30. Misra-Gries summary: at most k counters in fixed primitive arrays. Any key occurring more
+    // than n / (k + 1) times in a stream of n keys is guaranteed to hold a counter, and every
+    // estimate is low by at most errorBound(). Summaries built on separate threads or shards merge
+    // into one with the same guarantee, so IntStream.collect can build one in parallel.
+    static final class MisraGries {
+        private final int k;
+        private final int[] keys;
+        private final long[] counts;
+        private final IntIntMap slots; // key -> index into keys / counts
+        private int used;
+        private long total, kept;
+
+        MisraGries(int k) {
+            if (k < 1) throw new IllegalArgumentException("k must be positive");
+            this.k = k;
+            keys = new int[k];
+            counts = new long[k];
+            slots = new IntIntMap(k);
+        }
+
+        void update(int key) {
+            update(key, 1);
+        }
+
+        // Weighted update: key occurred count more times
+        void update(int key, long count) {
+            if (count < 0) throw new IllegalArgumentException("negative count");
+            total += count;
+            int slot = slots.get(key, -1);
+            if (slot >= 0) {
+                counts[slot] += count;
+                kept += count;
+                return;
+            }
+            while (count > 0 && used == k) {
+                // no free counter: decrement all k counters and the newcomer by the same amount
+                long min = counts[0];
+                for (int i = 1; i < used; i++) min = Math.min(min, counts[i]);
+                long d = Math.min(min, count);
+                for (int i = 0; i < used; i++) counts[i] -= d;
+                kept -= d * k;
+                count -= d;
+                dropZeroCounters();
+            }
+            if (count > 0) insert(key, count);
+        }
+
+        // Batched update: runs of equal keys collapse into one weighted update
+        void updateAll(int[] arr, int from, int to) {
+            for (int i = from; i < to; ) {
+                int key = arr[i], j = i + 1;
+                while (j < to && arr[j] == key) j++;
+                update(key, j - i);
+                i = j;
+            }
+        }
+
+        // Folds other into this summary: counters are added, then the (k + 1)-th largest count is
+        // subtracted from all of them so at most k stay positive
+        void merge(MisraGries other) {
+            int m = used;
+            int[] allKeys = Arrays.copyOf(keys, used + other.used);
+            long[] allCounts = Arrays.copyOf(counts, used + other.used);
+            for (int j = 0; j < other.used; j++) {
+                int slot = slots.get(other.keys[j], -1);
+                if (slot >= 0) allCounts[slot] += other.counts[j];
+                else {
+                    allKeys[m] = other.keys[j];
+                    allCounts[m++] = other.counts[j];
+                }
+            }
+            long cut = 0;
+            if (m > k) {
+                long[] sorted = Arrays.copyOf(allCounts, m);
+                Arrays.sort(sorted);
+                cut = sorted[m - k - 1];
+            }
+            total += other.total;
+            slots.clear();
+            used = 0;
+            kept = 0;
+            for (int i = 0; i < m; i++) {
+                if (allCounts[i] > cut) insert(allKeys[i], allCounts[i] - cut);
+            }
+        }
+
+        // Lower bound on the number of occurrences of key (0 when it holds no counter)
+        long estimate(int key) {
+            int slot = slots.get(key, -1);
+            return slot >= 0 ? counts[slot] : 0;
+        }
+
+        // Largest possible undercount of any estimate
+        long errorBound() {
+            return (total - kept) / (k + 1);
+        }
+
+        long total() {
+            return total;
+        }
+
+        // Keys holding a counter: a superset of the keys occurring more than total / (k + 1) times
+        int[] candidates() {
+            return Arrays.copyOf(keys, used);
+        }
+
+        // Up to m candidate keys, largest estimate first
+        int[] topK(int m) {
+            Integer[] order = new Integer[used]; // at most k entries, boxing is harmless here
+            for (int i = 0; i < used; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Long.compare(counts[b], counts[a]));
+            int[] res = new int[Math.min(m, used)];
+            for (int i = 0; i < res.length; i++) res[i] = keys[order[i]];
+            return res;
+        }
+
+        private void insert(int key, long count) {
+            keys[used] = key;
+            counts[used] = count;
+            slots.put(key, used++);
+            kept += count;
+        }
+
+        private void dropZeroCounters() {
+            for (int i = 0; i < used; ) {
+                if (counts[i] != 0) {
+                    i++;
+                    continue;
+                }
+                slots.remove(keys[i]);
+                if (i != --used) { // move the last counter into the hole
+                    keys[i] = keys[used];
+                    counts[i] = counts[used];
+                    slots.put(keys[i], i);
+                }
+            }
+        }
+    }
+
+    // 30. Count-Min sketch: depth rows of width counters. Estimates never undercount and overcount
+    // by more than epsilon * total() with probability at least 1 - delta. Sketches built with the
+    // same shape and seed merge by adding their tables.
+    static final class CountMinSketch {
+        private final int width, depth, shift;
+        private final long seed;
+        private final long[] table; // row-major, depth * width
+        private final long[] mul, add; // per-row multiply-shift hash parameters
+        private long total;
+
+        CountMinSketch(int width, int depth, long seed) {
+            if (width < 1 || depth < 1) throw new IllegalArgumentException("width and depth must be positive");
+            long rounded = width == 1 ? 1 : Long.highestOneBit(width - 1) << 1; // the table's real width
+            if (rounded > 1 << 30 || rounded * depth > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Sketch too large");
+            this.width = (int) rounded;
+            this.depth = depth;
+            this.shift = 64 - Integer.numberOfTrailingZeros(this.width);
+            this.seed = seed;
+            table = new long[this.width * depth];
+            mul = new long[depth];
+            add = new long[depth];
+            SplittableRandom rnd = new SplittableRandom(seed);
+            for (int r = 0; r < depth; r++) {
+                mul[r] = rnd.nextLong() | 1;
+                add[r] = rnd.nextLong();
+            }
+        }
+
+        // Width e / epsilon and depth ln(1 / delta), the standard sizing
+        static CountMinSketch forError(double epsilon, double delta, long seed) {
+            if (!(epsilon > 0 && epsilon < 1 && delta > 0 && delta < 1)) throw new IllegalArgumentException("epsilon and delta must be in (0, 1)");
+            return new CountMinSketch((int) Math.ceil(Math.E / epsilon), (int) Math.ceil(Math.log(1 / delta)), seed);
+        }
+
+        void update(int key) {
+            update(key, 1);
+        }
+
+        void update(int key, long count) {
+            if (count < 0) throw new IllegalArgumentException("negative count");
+            for (int r = 0; r < depth; r++) table[r * width + bucket(r, key)] += count;
+            total += count;
+        }
+
+        // Batched update, one row at a time so only that row's counters are in cache
+        void updateAll(int[] arr, int from, int to) {
+            for (int r = 0; r < depth; r++) {
+                int base = r * width;
+                for (int i = from; i < to; i++) table[base + bucket(r, arr[i])]++;
+            }
+            total += to - from;
+        }
+
+        long estimate(int key) {
+            long min = Long.MAX_VALUE;
+            for (int r = 0; r < depth; r++) min = Math.min(min, table[r * width + bucket(r, key)]);
+            return min;
+        }
+
+        void merge(CountMinSketch other) {
+            if (other.width != width || other.depth != depth || other.seed != seed) {
+                throw new IllegalArgumentException("Sketches differ in shape or seed");
+            }
+            for (int i = 0; i < table.length; i++) table[i] += other.table[i];
+            total += other.total;
+        }
+
+        long total() {
+            return total;
+        }
+
+        private int bucket(int row, int key) {
+            return width == 1 ? 0 : (int) ((mul[row] * key + add[row]) >>> shift);
+        }
+    }
+
+    // 30. Exact occurrence counts of keys in one replay of source (aligned with keys)
+    static long[] exactCounts(int[] keys, Supplier<IntStream> source) {
+        IntIntMap index = new IntIntMap(keys.length);
+        for (int i = 0; i < keys.length; i++) index.put(keys[i], i);
+        long[] counts = new long[keys.length];
+        source.get().sequential().forEach(v -> {
+            int i = index.get(v, -1);
+            if (i >= 0) counts[i]++;
+        });
+        return counts;
+    }
+
+    // 30. Heavy Hitters: the keys occurring more than n / (k + 1) times, most frequent first.
+    // Pass one builds a Misra-Gries summary (in parallel when the stream is parallel), pass two
+    // replays the source to count the candidates exactly and drop false positives. With k = 1
+    // this is majorityElement with verification.
+    static int[] heavyHitters(Supplier<IntStream> source, int k) {
+        MisraGries summary = source.get().collect(() -> new MisraGries(k), MisraGries::update, MisraGries::merge);
+        int[] candidates = summary.candidates();
+        long[] exact = exactCounts(candidates, source);
+        long threshold = summary.total() / (k + 1);
+        Integer[] order = new Integer[candidates.length]; // at most k entries, boxing is harmless here
+        int m = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            if (exact[i] > threshold) order[m++] = i;
+        }
+        Arrays.sort(order, 0, m, (a, b) -> Long.compare(exact[b], exact[a]));
+        int[] res = new int[m];
+        for (int i = 0; i < m; i++) res[i] = candidates[order[i]];
+        return res;
+    }
+
+    // 31. Parallel longestConsecutive / containsDuplicate for very large inputs. The value range
+    // picks the strategy: when a bitset over [min, max] is no larger than the input itself, blocks
+    // set bits in parallel with atomic ORs and the bitset is scanned for runs; otherwise a copy is
+    // sorted with a parallel LSD radix sort and scanned. Either scan is split into blocks whose
+    // run summaries (leading run, trailing run, best, all one run) are combined in order.
+    private static final VarHandle LONG_ELEMENTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    static int longestConsecutiveParallel(int[] arr) {
+        if (arr.length == 0) return 0;
+        long[] minMax = minMaxParallel(arr);
+        int min = (int) minMax[0];
+        long range = minMax[1] - minMax[0] + 1;
+        if (useBitset(arr.length, range)) {
+            long[] bits = new long[(int) ((range + 63) >>> 6)];
+            setBitsParallel(arr, min, bits, false);
+            return longestRunOfOnes(bits);
+        }
+        int[] sorted = arr.clone();
+        radixSortParallel(sorted);
+        return longestRunSorted(sorted);
+    }
+
+    static boolean containsDuplicateParallel(int[] arr) {
+        if (arr.length < 2) return false;
+        long[] minMax = minMaxParallel(arr);
+        long range = minMax[1] - minMax[0] + 1;
+        if (range < arr.length) return true; // pigeonhole
+        if (useBitset(arr.length, range)) {
+            return setBitsParallel(arr, (int) minMax[0], new long[(int) ((range + 63) >>> 6)], true);
+        }
+        int[] sorted = arr.clone();
+        radixSortParallel(sorted);
+        return IntStream.range(1, sorted.length).parallel().anyMatch(i -> sorted[i] == sorted[i - 1]);
+    }
+
+    // Range bits no more than the input's 32 bits per element (small ranges always qualify)
+    private static boolean useBitset(int n, long range) {
+        return range <= Math.max(1L << 16, 32L * n);
+    }
+
+    private static long[] minMaxParallel(int[] arr) {
+        int n = arr.length;
+        int blocks = (n + SCAN_BLOCK - 1) / SCAN_BLOCK;
+        int[] mins = new int[blocks], maxs = new int[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (int i = b * SCAN_BLOCK, end = Math.min(n, i + SCAN_BLOCK); i < end; i++) {
+                min = Math.min(min, arr[i]);
+                max = Math.max(max, arr[i]);
+            }
+            mins[b] = min;
+            maxs[b] = max;
+        });
+        return new long[]{SCALAR_SCANS.min(mins), SCALAR_SCANS.max(maxs)};
+    }
+
+    // Sets bit (v - min) for every v. With stopOnDuplicate, returns true as soon as some
+    // getAndBitwiseOr finds its bit already set (blocks not yet started are then skipped).
+    private static boolean setBitsParallel(int[] arr, int min, long[] bits, boolean stopOnDuplicate) {
+        int n = arr.length;
+        AtomicBoolean duplicate = new AtomicBoolean();
+        IntStream.range(0, (n + SCAN_BLOCK - 1) / SCAN_BLOCK).parallel().forEach(b -> {
+            if (duplicate.get()) return;
+            for (int i = b * SCAN_BLOCK, end = Math.min(n, i + SCAN_BLOCK); i < end; i++) {
+                long offset = (long) arr[i] - min, bit = 1L << offset;
+                long old = (long) LONG_ELEMENTS.getAndBitwiseOr(bits, (int) (offset >>> 6), bit);
+                if (stopOnDuplicate && (old & bit) != 0) {
+                    duplicate.set(true);
+                    return;
+                }
+            }
+        });
+        return duplicate.get();
+    }
+
+    private static int longestRunOfOnes(long[] bits) {
+        int words = bits.length, chunk = SCAN_BLOCK >>> 6; // SCAN_BLOCK values per chunk of words
+        int blocks = (words + chunk - 1) / chunk;
+        long[] lead = new long[blocks], trail = new long[blocks], best = new long[blocks];
+        boolean[] full = new boolean[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            long cur = 0, first = -1, max = 0;
+            for (int w = b * chunk, end = Math.min(words, w + chunk); w < end; w++) {
+                long word = bits[w];
+                int pos = 0;
+                while (pos < 64) {
+                    int ones = Math.min(Long.numberOfTrailingZeros(~(word >>> pos)), 64 - pos);
+                    cur += ones;
+                    pos += ones;
+                    if (pos == 64) break;
+                    if (first < 0) first = cur; // a zero ends the run
+                    max = Math.max(max, cur);
+                    cur = 0;
+                    long rest = word >>> pos;
+                    pos += rest == 0 ? 64 - pos : Long.numberOfTrailingZeros(rest);
+                }
+            }
+            full[b] = first < 0;
+            lead[b] = first < 0 ? cur : first;
+            trail[b] = cur;
+            best[b] = Math.max(max, cur);
+        });
+        long res = 0, carry = 0;
+        for (int b = 0; b < blocks; b++) {
+            if (full[b]) {
+                carry += lead[b];
+            } else {
+                res = Math.max(res, Math.max(carry + lead[b], best[b]));
+                carry = trail[b];
+            }
+        }
+        return (int) Math.max(res, carry);
+    }
+
+    // Longest run of consecutive distinct values in a sorted array (duplicates are skipped)
+    private static int longestRunSorted(int[] sorted) {
+        int n = sorted.length;
+        int blocks = (n + SCAN_BLOCK - 1) / SCAN_BLOCK;
+        int[] lead = new int[blocks], trail = new int[blocks], best = new int[blocks];
+        boolean[] full = new boolean[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int from = b * SCAN_BLOCK, end = Math.min(n, from + SCAN_BLOCK);
+            int cur = 1, first = -1, max = 0;
+            for (int i = from + 1; i < end; i++) {
+                long d = (long) sorted[i] - sorted[i - 1];
+                if (d == 1) cur++;
+                else if (d != 0) {
+                    if (first < 0) first = cur;
+                    max = Math.max(max, cur);
+                    cur = 1;
+                }
+            }
+            full[b] = first < 0;
+            lead[b] = first < 0 ? cur : first;
+            trail[b] = cur;
+            best[b] = Math.max(max, cur);
+        });
+        int res = 0, carry = 0;
+        for (int b = 0; b < blocks; b++) {
+            long d = b == 0 ? 2 : (long) sorted[b * SCAN_BLOCK] - sorted[b * SCAN_BLOCK - 1];
+            int joined = d == 0 ? carry + lead[b] - 1 : d == 1 ? carry + lead[b] : lead[b];
+            if (full[b]) {
+                carry = joined;
+            } else {
+                res = Math.max(res, Math.max(joined, best[b]));
+                carry = trail[b];
+            }
+        }
+        return Math.max(res, carry);
+    }
+
+    // 31. Parallel LSD radix sort, 8 bits per pass. Each pass: per-block digit histograms in
+    // parallel, one exclusive scan in (digit, block) order, then a parallel stable scatter.
+    // The top digit has its sign bit flipped so negatives sort first; passes where every key
+    // shares the digit are skipped.
+    static void radixSortParallel(int[] arr) {
+        int n = arr.length;
+        if (n < 2) return;
+        int blocks = (n + SCAN_BLOCK - 1) / SCAN_BLOCK;
+        int[] offsets = new int[blocks << 8];
+        int[] src = arr, dst = new int[n];
+        for (int shift = 0; shift < 32; shift += 8) {
+            int sh = shift, flip = shift == 24 ? 0x80 : 0;
+            int[] from = src, to = dst;
+            Arrays.fill(offsets, 0);
+            IntStream.range(0, blocks).parallel().forEach(b -> {
+                for (int i = b * SCAN_BLOCK, end = Math.min(n, i + SCAN_BLOCK); i < end; i++) {
+                    offsets[(b << 8) + (((from[i] >>> sh) & 0xFF) ^ flip)]++;
+                }
+            });
+            int firstDigit = ((from[0] >>> sh) & 0xFF) ^ flip;
+            long sameDigit = 0;
+            for (int b = 0; b < blocks; b++) sameDigit += offsets[(b << 8) + firstDigit];
+            if (sameDigit == n) continue; // this digit is constant: the pass would be a copy
+            int running = 0;
+            for (int d = 0; d < 256; d++) {
+                for (int b = 0; b < blocks; b++) {
+                    int c = offsets[(b << 8) + d];
+                    offsets[(b << 8) + d] = running;
+                    running += c;
+                }
+            }
+            IntStream.range(0, blocks).parallel().forEach(b -> {
+                for (int i = b * SCAN_BLOCK, end = Math.min(n, i + SCAN_BLOCK); i < end; i++) {
+                    to[offsets[(b << 8) + (((from[i] >>> sh) & 0xFF) ^ flip)]++] = from[i];
+                }
+            });
+            src = to;
+            dst = from;
+        }
+        if (src != arr) System.arraycopy(src, 0, arr, 0, n);
+    }
 }
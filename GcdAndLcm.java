@@ -1,3 +1,25 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
 public class GcdAndLcm {
     public static void main(String[] args) {
         // All Concepts: GCD, LCM, Euclidean algorithm, Subtraction method, GCD/LCM of arrays
@@ -17,6 +39,14 @@ public class GcdAndLcm {
         System.out.println("GCD using subtraction of " + a + " and " + b + " is: " + gcdUsingSubtraction(a, b));    
         System.out.println("GCD of array {12, 15, 21} is: " + gcdOfArray(new int[]{12, 15, 21}));
         System.out.println("LCM of array {12, 15, 21} is: " + lcmOfArray(new int[]{12, 15, 21}));
+        System.out.println("Binary GCD of 10^18 and 6*10^17 is: " + gcdBinary(1_000_000_000_000_000_000L, 600_000_000_000_000_000L));
+        System.out.println("Exact LCM of 4*10^9 and 6*10^9 is: " + lcmExact(4_000_000_000L, 6_000_000_000L));
+        System.out.println("BigInteger LCM of Long.MAX_VALUE and Long.MAX_VALUE - 1 is: " + lcmBig(Long.MAX_VALUE, Long.MAX_VALUE - 1));
+        System.out.println("Parallel GCD of {12, 18, 35, ...} (stops at 1): " + gcdOfArrayParallel(new long[]{12, 18, 35, 40, 60}));
+        System.out.println("Parallel LCM of 1..40 capped at 10^16: " + lcmOfArrayParallel(LongStream.rangeClosed(1, 40).toArray(), 10_000_000_000_000_000L));
+        System.out.println("BigInteger LCM of 1..40: " + lcmOfArrayBig(LongStream.rangeClosed(1, 40).toArray()));
+        System.out.println("Batch GCD of {33, 35, 77, 13} (shared factors): " + Arrays.toString(batchGcd(new long[]{33, 35, 77, 13})));
+        if (args.length > 0 && args[0].equals("bench")) benchmarkGcd(5_000_000);
     }
 
     static int gcd(int a, int b) {
@@ -28,8 +58,10 @@ public class GcdAndLcm {
         return a;
     }
 
+    // Divides before multiplying and throws ArithmeticException instead of overflowing
     static int lcm(int a, int b) {
-        return (a * b) / gcd(a, b);
+        if (a == 0 || b == 0) return 0;
+        return Math.multiplyExact(a / gcd(a, b), b);
     }
 
     static int gcdUsingEuclidean(int a, int b) {
@@ -66,5 +98,398 @@ public class GcdAndLcm {
             result = lcm(result, arr[i]);
         }
         return result;
-    }        
+    }
+
+    // Binary (Stein) GCD on longs: shifts and subtractions only, no division
+    // Signs are ignored; throws ArithmeticException when the result (2^63) does not fit
+    static long gcdBinary(long a, long b) {
+        a = Math.abs(a); // Long.MIN_VALUE stays 2^63 when read as unsigned
+        b = Math.abs(b);
+        if (a == 0 || b == 0) {
+            long r = a | b;
+            if (r < 0) throw new ArithmeticException("gcd overflows long");
+            return r;
+        }
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>>= Long.numberOfTrailingZeros(a);
+        do {
+            b >>>= Long.numberOfTrailingZeros(b);
+            if (a > b) {
+                long t = a;
+                a = b;
+                b = t;
+            }
+            b -= a;
+        } while (b != 0);
+        long g = a << shift;
+        if (g < 0) throw new ArithmeticException("gcd overflows long");
+        return g;
+    }
+
+    // LCM on longs: divide first, then an exact multiply that throws ArithmeticException on overflow
+    static long lcmExact(long a, long b) {
+        if (a == 0 || b == 0) return 0;
+        long g = gcdBinary(a, b);
+        return Math.absExact(Math.multiplyExact(a / g, b));
+    }
+
+    // LCM for values whose result exceeds long
+    static BigInteger lcmBig(long a, long b) {
+        return lcmBig(BigInteger.valueOf(a), BigInteger.valueOf(b));
+    }
+
+    static BigInteger lcmBig(BigInteger a, BigInteger b) {
+        if (a.signum() == 0 || b.signum() == 0) return BigInteger.ZERO;
+        return a.divide(a.gcd(b)).multiply(b).abs();
+    }
+
+    // Throughput of the GCD kernels on random positive pairs (run: java GcdAndLcm bench)
+    static void benchmarkGcd(int pairs) {
+        Random rnd = new Random(42);
+        int[] ia = new int[pairs], ib = new int[pairs];
+        long[] la = new long[pairs], lb = new long[pairs];
+        for (int i = 0; i < pairs; i++) {
+            ia[i] = rnd.nextInt(Integer.MAX_VALUE) + 1;
+            ib[i] = rnd.nextInt(Integer.MAX_VALUE) + 1;
+            la[i] = (rnd.nextLong() >>> 1) | 1;
+            lb[i] = (rnd.nextLong() >>> 1) | 1;
+        }
+        for (int round = 0; round < 3; round++) { // the first rounds are JIT warm-up
+            long sink = 0, t0 = System.nanoTime();
+            for (int i = 0; i < pairs; i++) sink += gcd(ia[i], ib[i]);
+            long t1 = System.nanoTime();
+            for (int i = 0; i < pairs; i++) sink += gcdUsingEuclidean(ia[i], ib[i]);
+            long t2 = System.nanoTime();
+            for (int i = 0; i < pairs; i++) sink += gcdBinary(ia[i], ib[i]);
+            long t3 = System.nanoTime();
+            for (int i = 0; i < pairs; i++) sink += gcdBinary(la[i], lb[i]);
+            long t4 = System.nanoTime();
+            System.out.printf("round %d: gcd(int) %.1f, gcdUsingEuclidean(int) %.1f, gcdBinary(int) %.1f, gcdBinary(long) %.1f Mpairs/s (sink %d)%n",
+                    round, pairs * 1e3 / (t1 - t0), pairs * 1e3 / (t2 - t1), pairs * 1e3 / (t3 - t2), pairs * 1e3 / (t4 - t3), sink);
+        }
+    }
+
+    // Parallel GCD of an array (fork-join); every task stops as soon as any of them reaches 1
+    static long gcdOfArrayParallel(int[] arr) {
+        return ForkJoinPool.commonPool().invoke(new ReductionTask(arr, null, null, 0, arr.length, false, 0, new AtomicBoolean()));
+    }
+
+    static long gcdOfArrayParallel(long[] arr) {
+        return ForkJoinPool.commonPool().invoke(new ReductionTask(null, arr, null, 0, arr.length, false, 0, new AtomicBoolean()));
+    }
+
+    static long gcdOfStream(LongStream stream) {
+        return ForkJoinPool.commonPool().invoke(new ReductionTask(null, null, stream.spliterator(), 0, 0, false, 0, new AtomicBoolean()));
+    }
+
+    // Parallel LCM of an array, or -1 as soon as it is known to exceed cap (siblings stop too)
+    static long lcmOfArrayParallel(int[] arr, long cap) {
+        return ForkJoinPool.commonPool().invoke(new ReductionTask(arr, null, null, 0, arr.length, true, cap, new AtomicBoolean()));
+    }
+
+    static long lcmOfArrayParallel(long[] arr, long cap) {
+        return ForkJoinPool.commonPool().invoke(new ReductionTask(null, arr, null, 0, arr.length, true, cap, new AtomicBoolean()));
+    }
+
+    static long lcmOfStream(LongStream stream, long cap) {
+        return ForkJoinPool.commonPool().invoke(new ReductionTask(null, null, stream.spliterator(), 0, 0, true, cap, new AtomicBoolean()));
+    }
+
+    // Parallel LCM of an array without any bound on the result
+    static BigInteger lcmOfArrayBig(long[] arr) {
+        return lcmOfStreamBig(Arrays.stream(arr));
+    }
+
+    static BigInteger lcmOfStreamBig(LongStream stream) {
+        return stream.parallel().mapToObj(BigInteger::valueOf).reduce(BigInteger.ONE, GcdAndLcm::lcmBig);
+    }
+
+    // lcm(|a|, |b|), or -1 when it exceeds cap
+    static long lcmCapped(long a, long b, long cap) {
+        if (a == Long.MIN_VALUE || b == Long.MIN_VALUE) return -1;
+        a = Math.abs(a);
+        b = Math.abs(b);
+        if (a == 0 || b == 0) return 0;
+        long q = a / gcdBinary(a, b);
+        if (q > cap / b) return -1;
+        return q * b;
+    }
+
+    // One fork-join node of a GCD or capped-LCM reduction over an int[] / long[] range or a
+    // spliterator. done is shared by the whole tree: once the answer is decided (GCD 1 or
+    // LCM past the cap) every task sees it within one block and returns that answer.
+    static final class ReductionTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        static final int LEAF = 1 << 14;  // 64-128 KB of input per leaf
+        static final int BLOCK = 1 << 10; // elements between polls of done
+
+        final int[] ints;
+        final long[] longs;
+        final Spliterator.OfLong source;
+        final int from, to;
+        final boolean lcm;
+        final long cap;
+        final AtomicBoolean done;
+
+        ReductionTask(int[] ints, long[] longs, Spliterator.OfLong source, int from, int to,
+                      boolean lcm, long cap, AtomicBoolean done) {
+            this.ints = ints;
+            this.longs = longs;
+            this.source = source;
+            this.from = from;
+            this.to = to;
+            this.lcm = lcm;
+            this.cap = cap;
+            this.done = done;
+        }
+
+        @Override
+        protected Long compute() {
+            long decided = lcm ? -1 : 1;
+            if (done.get()) return decided;
+            ReductionTask left = null, right = null;
+            if (source != null) {
+                Spliterator.OfLong prefix = source.estimateSize() > LEAF ? source.trySplit() : null;
+                if (prefix != null) {
+                    left = new ReductionTask(null, null, prefix, 0, 0, lcm, cap, done);
+                    right = new ReductionTask(null, null, source, 0, 0, lcm, cap, done);
+                }
+            } else if (to - from > LEAF) {
+                int mid = (from + to) >>> 1;
+                left = new ReductionTask(ints, longs, null, from, mid, lcm, cap, done);
+                right = new ReductionTask(ints, longs, null, mid, to, lcm, cap, done);
+            }
+            if (left != null) {
+                left.fork();
+                long r = right.compute();
+                long l = left.join();
+                if (r == decided || l == decided) return decided;
+                return combine(l, r);
+            }
+            return source != null ? reduceSource() : reduceRange();
+        }
+
+        private long reduceRange() {
+            long acc = lcm ? 1 : 0;
+            for (int start = from; start < to; start += BLOCK) {
+                int end = Math.min(to, start + BLOCK);
+                for (int i = start; i < end; i++) acc = combine(acc, ints != null ? ints[i] : longs[i]);
+                if (isDecided(acc) || done.get()) return lcm ? -1 : 1;
+            }
+            return acc;
+        }
+
+        private long reduceSource() {
+            long[] acc = {lcm ? 1 : 0};
+            long seen = 0;
+            while (source.tryAdvance((long v) -> acc[0] = combine(acc[0], v))) {
+                if (isDecided(acc[0])) return acc[0];
+                if ((++seen & (BLOCK - 1)) == 0 && done.get()) return lcm ? -1 : 1;
+            }
+            return acc[0];
+        }
+
+        private long combine(long acc, long v) {
+            if (lcm) return acc < 0 ? -1 : lcmCapped(acc, v, cap);
+            return acc == 1 ? 1 : gcdBinary(acc, v);
+        }
+
+        private boolean isDecided(long acc) {
+            if (acc != (lcm ? -1 : 1)) return false;
+            done.set(true);
+            return true;
+        }
+    }
+
+    // Batch GCD (Bernstein): result[i] = gcd(moduli[i], product of all the other moduli)
+    // Product tree up, remainder tree down (P mod n^2 per node), O(n log^2 n) multiplications
+    // instead of n^2 pairwise GCDs. Each tree level is computed in parallel.
+    // Moduli must be positive; anything else throws IllegalArgumentException naming its index.
+    static long[] batchGcd(long[] moduli) {
+        BigInteger[] big = new BigInteger[moduli.length];
+        for (int i = 0; i < moduli.length; i++) big[i] = BigInteger.valueOf(moduli[i]);
+        BigInteger[] res = batchGcd(big);
+        long[] out = new long[res.length];
+        for (int i = 0; i < res.length; i++) out[i] = res[i].longValue();
+        return out;
+    }
+
+    static BigInteger[] batchGcd(BigInteger[] moduli) {
+        for (int i = 0; i < moduli.length; i++) checkModulus(moduli[i], i);
+        List<BigInteger[]> levels = new ArrayList<>();
+        BigInteger[] level = moduli;
+        while (level.length > 1) {
+            levels.add(level);
+            level = productLevel(level);
+        }
+        BigInteger[] rems = level; // the root: product of everything
+        for (int k = levels.size() - 1; k >= 1; k--) rems = remainderLevel(rems, levels.get(k), false);
+        return remainderLevel(rems, moduli, true);
+    }
+
+    // Spill mode for inputs larger than the heap. Moduli are streamed from a file of
+    // length-prefixed big-endian values (see writeBigIntegers), every tree level is a temporary
+    // file in spillDir, and each pass holds one chunk of two adjacent levels in memory. Results go
+    // to resultFile in the same format and input order; returns the number of moduli.
+    // Node sizes still double per level, so the root alone is as large as the whole input.
+    static long batchGcd(Path moduliFile, Path spillDir, Path resultFile) {
+        List<Path> levels = new ArrayList<>(); // levels.get(k) holds product-tree level k, 0 = leaves
+        List<Path> spilled = new ArrayList<>();
+        levels.add(moduliFile);
+        try {
+            long n = -1;
+            long count;
+            do {
+                Path above = spillFile(spillDir, spilled);
+                count = productLevel(levels.get(levels.size() - 1), above, n < 0);
+                if (n < 0) n = count;
+                levels.add(above);
+            } while ((count + 1) / 2 > 1);
+            Path rems = levels.get(levels.size() - 1); // the root: product of everything
+            for (int k = levels.size() - 2; k >= 0; k--) {
+                Path next = k == 0 ? resultFile : spillFile(spillDir, spilled);
+                remainderLevel(rems, levels.get(k), next, k == 0);
+                Files.delete(rems);
+                if (k > 0) Files.delete(levels.get(k));
+                rems = next;
+            }
+            return n;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (Path p : spilled) {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException ignored) {
+                    // best effort cleanup of temporary files
+                }
+            }
+        }
+    }
+
+    // Same as above for moduli that arrive as a stream: they are spilled to a leaf file in
+    // spillDir as they come, so the input never has to fit in the heap
+    static long batchGcd(Iterator<BigInteger> moduli, Path spillDir, Path resultFile) {
+        Path leaves = null;
+        try {
+            leaves = Files.createTempFile(spillDir, "batchgcd-leaves", ".bin");
+            writeBigIntegers(moduli, leaves);
+            return batchGcd(leaves, spillDir, resultFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                if (leaves != null) Files.deleteIfExists(leaves);
+            } catch (IOException ignored) {
+                // best effort cleanup of temporary files
+            }
+        }
+    }
+
+    // Writes values as a 4-byte length followed by BigInteger.toByteArray(), the spill-mode format
+    static void writeBigIntegers(Iterator<BigInteger> values, Path file) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            while (values.hasNext()) writeBigInteger(out, values.next());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Reads a file written by writeBigIntegers (or a spill-mode result file) one value at a time
+    static void forEachBigInteger(Path file, Consumer<BigInteger> action) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            BigInteger[] chunk;
+            do {
+                chunk = readChunk(in, SPILL_CHUNK);
+                for (BigInteger v : chunk) action.accept(v);
+            } while (chunk.length == SPILL_CHUNK);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Values per spill-mode chunk; even, so a chunk of nodes always lines up with whole parents
+    static final int SPILL_CHUNK = 1 << 12;
+
+    private static Path spillFile(Path spillDir, List<Path> spilled) throws IOException {
+        Path file = Files.createTempFile(spillDir, "batchgcd-level", ".bin");
+        spilled.add(file);
+        return file;
+    }
+
+    // A zero modulus would make the remainder tree divide by zero
+    private static void checkModulus(BigInteger m, long index) {
+        if (m == null || m.signum() <= 0) {
+            throw new IllegalArgumentException("modulus at index " + index + " is not positive");
+        }
+    }
+
+    private static BigInteger[] productLevel(BigInteger[] below) {
+        BigInteger[] above = new BigInteger[(below.length + 1) / 2];
+        IntStream.range(0, above.length).parallel().forEach(i ->
+                above[i] = 2 * i + 1 < below.length ? below[2 * i].multiply(below[2 * i + 1]) : below[2 * i]);
+        return above;
+    }
+
+    // Each node takes its parent's remainder mod node^2; at the leaves that becomes
+    // gcd(remainder / leaf, leaf). parents[0] belongs to nodes[0] and nodes[1].
+    private static BigInteger[] remainderLevel(BigInteger[] parents, BigInteger[] nodes, boolean leaves) {
+        BigInteger[] next = new BigInteger[nodes.length];
+        IntStream.range(0, nodes.length).parallel().forEach(i -> {
+            BigInteger r = parents[i / 2].mod(nodes[i].multiply(nodes[i]));
+            next[i] = leaves ? r.divide(nodes[i]).gcd(nodes[i]) : r;
+        });
+        return next;
+    }
+
+    // Streams one product-tree level into the next; returns how many values the lower level had
+    private static long productLevel(Path below, Path above, boolean check) throws IOException {
+        long count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(below), 1 << 16));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(above), 1 << 16))) {
+            BigInteger[] chunk;
+            do {
+                chunk = readChunk(in, SPILL_CHUNK);
+                if (check) for (int i = 0; i < chunk.length; i++) checkModulus(chunk[i], count + i);
+                for (BigInteger v : productLevel(chunk)) writeBigInteger(out, v);
+                count += chunk.length;
+            } while (chunk.length == SPILL_CHUNK);
+        }
+        return count;
+    }
+
+    private static void remainderLevel(Path parents, Path nodes, Path next, boolean leaves) throws IOException {
+        try (DataInputStream up = new DataInputStream(new BufferedInputStream(Files.newInputStream(parents), 1 << 16));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(nodes), 1 << 16));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(next), 1 << 16))) {
+            BigInteger[] chunk;
+            do {
+                chunk = readChunk(in, SPILL_CHUNK);
+                BigInteger[] above = readChunk(up, (chunk.length + 1) / 2);
+                for (BigInteger v : remainderLevel(above, chunk, leaves)) writeBigInteger(out, v);
+            } while (chunk.length == SPILL_CHUNK);
+        }
+    }
+
+    private static void writeBigInteger(DataOutputStream out, BigInteger v) throws IOException {
+        byte[] bytes = v.toByteArray();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Up to max values; fewer only at the end of the file
+    private static BigInteger[] readChunk(DataInputStream in, int max) throws IOException {
+        BigInteger[] chunk = new BigInteger[max];
+        int k = 0;
+        for (; k < max; k++) {
+            int first = in.read();
+            if (first < 0) break;
+            int len = first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedShort();
+            if (len <= 0) throw new IOException("corrupt length " + len + " in spill file");
+            byte[] bytes = new byte[len];
+            in.readFully(bytes);
+            chunk[k] = new BigInteger(bytes);
+        }
+        return k == max ? chunk : Arrays.copyOf(chunk, k);
+    }
 }
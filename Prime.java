@@ -1,4 +1,25 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32C;
 
 /**
  * Prime Number Algorithms and Concepts for DSA in Java
@@ -12,6 +33,13 @@ import java.util.Arrays;
  * 5. Generating All Primes up to n
  * 6. Space-optimized Sieve (if needed)
  * 7. Prime Factorization (optional)
+ * 8. Bit-packed Odd-only Sieve (long[] bitset, limits beyond int)
+ * 9. Parallel Cache-blocked Segmented Sieve (ForkJoinPool)
+ * 10. Lazy Prime Iterator / LongStream (segment by segment, resumable from any long)
+ * 11. Deterministic 64-bit Miller-Rabin (Montgomery arithmetic) with batch mode
+ * 12. Factorization Engine (smallest-prime-factor table + Pollard-Brent rho)
+ * 13. Sublinear Prime Counting (Meissel-Lehmer)
+ * 14. Persistent Memory-mapped Prime Table (written once, shared zero-copy across processes)
  */
 
 public class Prime {
@@ -24,6 +52,37 @@ public class Prime {
         System.out.println("Count of primes up to " + n + ": " + countPrimes(n));
         System.out.println("Prime factors of 84: " + Arrays.toString(primeFactors(84)));
         System.out.println("Primes in range 10 to 50: " + Arrays.toString(segmentedSieve(10, 50)));
+        System.out.println("Count of primes up to 10^12 (Meissel-Lehmer): " + countPrimes(1_000_000_000_000L));
+        System.out.println("First 10 primes from 10^15: " + Arrays.toString(primes(1_000_000_000_000_000L).limit(10).toArray()));
+        System.out.println("Is 2^61 - 1 prime (Miller-Rabin)? " + isPrimeMillerRabin((1L << 61) - 1));
+        System.out.println("Prime factors of 2^62 - 1: " + Arrays.toString(primeFactors((1L << 62) - 1)));
+        System.out.println("Count of primes in [10^12, 10^12 + 10^8]: " + countPrimesInRange(1_000_000_000_000L, 1_000_100_000_000L));
+        System.out.println("Last prime below 2^63: " + primes(Long.MAX_VALUE - 1000).reduce((a, b) -> b).getAsLong());
+        if (args.length > 0 && args[0].equals("test")) testPrimesNearLongMax();
+    }
+
+    /**
+     * 10. Self-check (java Prime test): the lazy stream near Long.MAX_VALUE, where its base primes
+     * stop growing at BASE_CAP, must agree with Miller-Rabin on every odd number and end cleanly.
+     */
+    static void testPrimesNearLongMax() {
+        long start = Long.MAX_VALUE - 2_000_000;
+        PrimeIterator it = primeIterator(start);
+        long expected = start | 1, found = 0;
+        while (it.hasNext()) {
+            long p = it.nextLong();
+            for (; expected < p; expected += 2) {
+                if (isPrimeMillerRabin(expected)) throw new IllegalStateException("Missed prime " + expected);
+            }
+            if (p != expected || !isPrimeMillerRabin(p)) throw new IllegalStateException("Not a prime: " + p);
+            expected += 2;
+            found++;
+        }
+        for (; expected > 0; expected += 2) { // stops once expected wraps past Long.MAX_VALUE
+            if (isPrimeMillerRabin(expected)) throw new IllegalStateException("Missed prime " + expected);
+        }
+        if (primes(Long.MAX_VALUE).count() != 0) throw new IllegalStateException("Long.MAX_VALUE is not prime");
+        System.out.println("primes(" + start + ") OK: " + found + " primes up to Long.MAX_VALUE");
     }
 
     /**
@@ -53,25 +112,22 @@ public class Prime {
     /**
      * 3. Sieve of Eratosthenes (O(n log log n))
      * Returns all primes up to n (inclusive)
+     * Backed by the bit-packed odd-only sieve, so the working set is n / 16 bytes.
      */
     public static int[] sieveOfEratosthenes(int n) {
-        boolean[] isPrime = new boolean[n + 1];
-        Arrays.fill(isPrime, true);
-        if (n >= 0) isPrime[0] = false;
-        if (n >= 1) isPrime[1] = false;
-        for (int i = 2; i * i <= n; i++) {
-            if (isPrime[i]) {
-                for (int j = i * i; j <= n; j += i) {
-                    isPrime[j] = false;
-                }
-            }
-        }
-        int count = 0;
-        for (boolean b : isPrime) if (b) count++;
+        long[] bits = oddSieveBits(n);
+        int count = n >= 2 ? 1 : 0;
+        for (long word : bits) count += Long.bitCount(word);
         int[] primes = new int[count];
         int idx = 0;
-        for (int i = 2; i <= n; i++) {
-            if (isPrime[i]) primes[idx++] = i;
+        if (n >= 2) primes[idx++] = 2;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                long odd = ((long) w << 6) + Long.numberOfTrailingZeros(word);
+                primes[idx++] = (int) (2 * odd + 1);
+                word &= word - 1;
+            }
         }
         return primes;
     }
@@ -80,42 +136,1030 @@ public class Prime {
      * 4. Count of Primes up to n
      */
     public static int countPrimes(int n) {
-        return sieveOfEratosthenes(n).length;
+        return (int) countPrimes((long) n);
+    }
+
+    /**
+     * 4. Count of Primes up to n (long)
+     * Small n is counted with Long.bitCount on the packed sieve, larger n with the
+     * sublinear Meissel-Lehmer PrimeCounter.
+     */
+    public static long countPrimes(long n) {
+        if (n < 2) return 0;
+        if (n <= 1 << 20) {
+            long count = 1; // 2 is implicit in the odd-only layout
+            for (long word : oddSieveBits(n)) count += Long.bitCount(word);
+            return count;
+        }
+        return new PrimeCounter(n).pi(n);
+    }
+
+    /**
+     * 4. Count of Primes at many points, sharing one PrimeCounter's tables
+     */
+    public static long[] countPrimes(long[] xs) {
+        long max = 0;
+        for (long x : xs) max = Math.max(max, x);
+        return new PrimeCounter(max).pi(xs);
     }
 
     /**
      * 5. Prime Factorization (returns all prime factors, including duplicates)
      */
     public static int[] primeFactors(int num) {
-        if (num <= 1) return new int[0];
-        int[] factors = new int[32]; // Enough for int range
-        int idx = 0;
-        for (int i = 2; i * i <= num; i++) {
-            while (num % i == 0) {
-                factors[idx++] = i;
-                num /= i;
-            }
-        }
-        if (num > 1) factors[idx++] = num;
-        return Arrays.copyOf(factors, idx);
+        long[] factors = primeFactors((long) num);
+        int[] res = new int[factors.length];
+        for (int i = 0; i < factors.length; i++) res[i] = (int) factors[i];
+        return res;
+    }
+
+    /**
+     * 5. Prime Factorization of a long (Pollard-Brent rho, see Factorizer)
+     */
+    public static long[] primeFactors(long num) {
+        long[] factors = new long[64]; // a long has at most 63 prime factors
+        int count = new Factorizer(0).factor(num, factors);
+        return Arrays.copyOf(factors, count);
     }
 
     //advanced/space-optimized sieve or segmented sieve as needed
     public static int[] segmentedSieve(int low, int high) {
-        boolean[] isPrime = new boolean[high - low + 1];
-        Arrays.fill(isPrime, true);
-        for (int i = 2; i * i <= high; i++) {
-            for (int j = Math.max(i * i, (low + i - 1) / i * i); j <= high; j += i) {
-                isPrime[j - low] = false;
+        long[] primes = segmentedSieve((long) low, (long) high);
+        int[] res = new int[primes.length];
+        for (int i = 0; i < primes.length; i++) res[i] = (int) primes[i];
+        return res;
+    }
+
+    /**
+     * 8. Bit-packed Odd-only Sieve (n / 16 bytes instead of n bytes)
+     * Bit i of the result is set when 2i + 1 is prime (2 is implicit, 1 is cleared).
+     * Works for limits beyond Integer.MAX_VALUE, up to about 2.7 * 10^11.
+     */
+    public static long[] oddSieveBits(long n) {
+        if (n < 1) return new long[0];
+        long oddCount = (n + 1) / 2; // odd numbers 1, 3, ..., <= n
+        long words = (oddCount + 63) >>> 6;
+        if (words > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Limit too large for a single bitset: " + n);
+        long[] bits = new long[(int) words];
+        Arrays.fill(bits, -1L);
+        bits[0] &= ~1L; // 1 is not prime
+        int tail = (int) (oddCount & 63);
+        if (tail != 0) bits[bits.length - 1] &= (1L << tail) - 1;
+        for (long p = 3; p * p <= n; p += 2) {
+            long i = p >>> 1;
+            if ((bits[(int) (i >>> 6)] & (1L << i)) == 0) continue;
+            for (long j = (p * p) >>> 1; j < oddCount; j += p) {
+                bits[(int) (j >>> 6)] &= ~(1L << j);
             }
         }
+        return bits;
+    }
+
+    /**
+     * 8. Lookup in a bitset produced by oddSieveBits (num must not exceed its limit)
+     */
+    public static boolean isPrimeInBits(long[] bits, long num) {
+        if (num == 2) return true;
+        if (num < 2 || (num & 1) == 0) return false;
+        long i = num >>> 1;
+        return (bits[(int) (i >>> 6)] & (1L << i)) != 0;
+    }
+
+    /**
+     * 9. Parallel Cache-blocked Segmented Sieve
+     * Base primes up to sqrt(high) are sieved once, then [low, high] is split into
+     * odd-only segments of SEGMENT_ODDS bits (32 KB, one L1 cache) that are crossed off
+     * on the common ForkJoinPool. Per-segment results are concatenated in order.
+     */
+    public static long[] segmentedSieve(long low, long high) {
+        low = Math.max(low, 2);
+        if (high < low) return new long[0];
+        int[] basePrimes = basePrimes(high);
+        int segments = segmentCount(low, high);
+        long[][] parts = new long[segments][];
+        ForkJoinPool.commonPool().invoke(new SegmentTask(basePrimes, low, high, 0, segments, parts, null));
+        long total = 0;
+        for (long[] part : parts) total += part.length;
+        if (total > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Too many primes in range to materialize, use countPrimesInRange");
+        long[] primes = new long[(int) total];
+        int idx = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, primes, idx, part.length);
+            idx += part.length;
+        }
+        return primes;
+    }
+
+    /**
+     * 9. Count primes in [low, high] with the parallel segmented sieve (no prime list is built)
+     */
+    public static long countPrimesInRange(long low, long high) {
+        low = Math.max(low, 2);
+        if (high < low) return 0;
+        int[] basePrimes = basePrimes(high);
+        int segments = segmentCount(low, high);
+        long[] counts = new long[segments];
+        ForkJoinPool.commonPool().invoke(new SegmentTask(basePrimes, low, high, 0, segments, null, counts));
+        long total = 0;
+        for (long c : counts) total += c;
+        return total;
+    }
+
+    static final int SEGMENT_ODDS = 1 << 18; // 32 KB of bits per segment
+    static final long BASE_CAP = 1L << 22;  // the prime iterator sieves with primes up to this (about 1.2 MB)
+
+    static long isqrt(long n) {
+        final long maxRoot = 3037000499L; // floor(sqrt(Long.MAX_VALUE))
+        long r = Math.min((long) Math.sqrt((double) n), maxRoot);
+        while (r * r > n) r--;
+        while (r < maxRoot && (r + 1) * (r + 1) <= n) r++;
+        return r;
+    }
+
+    // Odd primes up to sqrt(high), the only crossing primes a segment needs. They are all below
+    // 2^32 (sqrt(Long.MAX_VALUE) < 3037000500), so they are stored as unsigned ints.
+    static int[] basePrimes(long high) {
+        long limit = isqrt(high);
+        long[] bits = oddSieveBits(limit);
         int count = 0;
-        for (boolean b : isPrime) if (b) count++;
+        for (long word : bits) count += Long.bitCount(word);
         int[] primes = new int[count];
         int idx = 0;
-        for (int i = low; i <= high; i++) {
-            if (isPrime[i - low]) primes[idx++] = i;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                primes[idx++] = (int) (2 * (((long) w << 6) + Long.numberOfTrailingZeros(word)) + 1);
+                word &= word - 1;
+            }
         }
         return primes;
     }
+
+    static int segmentCount(long low, long high) {
+        long span = (high - low) / 2 + 1; // odd numbers in the range, rounded up
+        long segments = (span + SEGMENT_ODDS - 1) / SEGMENT_ODDS;
+        if (segments > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Range too large: [" + low + ", " + high + "]");
+        return (int) segments;
+    }
+
+    /**
+     * Sieves the odd numbers of [lo, hi] into bits (bit j is set when first + 2j is prime,
+     * first being the smallest odd number >= lo) and returns how many bits are in use.
+     */
+    static int sieveSegment(int[] basePrimes, long lo, long hi, long[] bits) {
+        return sieveSegment(basePrimes, basePrimes.length, lo, hi, bits);
+    }
+
+    // Same, crossing off with the first baseCount entries of basePrimes only
+    static int sieveSegment(int[] basePrimes, int baseCount, long lo, long hi, long[] bits) {
+        long first = lo | 1;
+        if (hi < first) return 0;
+        int size = (int) ((hi - first) / 2 + 1);
+        int words = (size + 63) >>> 6;
+        Arrays.fill(bits, 0, words, -1L);
+        if ((size & 63) != 0) bits[words - 1] = (1L << size) - 1;
+        if (first == 1) bits[0] &= ~1L;
+        for (int b = 0; b < baseCount; b++) {
+            long p = Integer.toUnsignedLong(basePrimes[b]);
+            if (p * p > hi) break;
+            long start;
+            if (p * p >= first) {
+                start = p * p - first;
+            } else {
+                long rem = first % p;
+                start = rem == 0 ? 0 : p - rem;
+            }
+            if ((start & 1) != 0) start += p; // keep to odd multiples
+            for (long j = start >>> 1; j < size; j += p) {
+                bits[(int) (j >>> 6)] &= ~(1L << j);
+            }
+        }
+        return size;
+    }
+
+    static class SegmentTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        final int[] basePrimes;
+        final long low, high;
+        final int from, to;
+        final long[][] parts; // per-segment primes, or null when counting
+        final long[] counts;  // per-segment counts, or null when collecting
+
+        SegmentTask(int[] basePrimes, long low, long high, int from, int to, long[][] parts, long[] counts) {
+            this.basePrimes = basePrimes;
+            this.low = low;
+            this.high = high;
+            this.from = from;
+            this.to = to;
+            this.parts = parts;
+            this.counts = counts;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SegmentTask(basePrimes, low, high, from, mid, parts, counts),
+                          new SegmentTask(basePrimes, low, high, mid, to, parts, counts));
+                return;
+            }
+            long[] bits = new long[SEGMENT_ODDS >>> 6];
+            long first = low | 1;
+            long segFirst = first + 2L * SEGMENT_ODDS * from;
+            long segLast = Math.min(high, segFirst + 2L * (SEGMENT_ODDS - 1));
+            sieveSegment(basePrimes, segFirst, segLast, bits);
+            boolean hasTwo = from == 0 && low <= 2;
+            int count = hasTwo ? 1 : 0;
+            for (long word : bits) count += Long.bitCount(word);
+            if (counts != null) {
+                counts[from] = count;
+                return;
+            }
+            long[] primes = new long[count];
+            int idx = 0;
+            if (hasTwo) primes[idx++] = 2;
+            for (int w = 0; w < bits.length; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    primes[idx++] = segFirst + 2 * (((long) w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            parts[from] = primes;
+        }
+    }
+
+    /**
+     * 10. Lazy, unbounded stream of primes >= start
+     * Primes are sieved one segment at a time. The base primes grow with sqrt of the current
+     * position up to BASE_CAP; past that, segment survivors are confirmed with Miller-Rabin,
+     * so memory stays bounded for any start up to Long.MAX_VALUE. The stream splits for parallel use.
+     */
+    public static LongStream primes(long start) {
+        return primes(start, Long.MAX_VALUE);
+    }
+
+    /**
+     * 10. Lazy stream of primes in [start, end]
+     */
+    public static LongStream primes(long start, long end) {
+        return StreamSupport.longStream(new PrimeSpliterator(start, end), false);
+    }
+
+    /**
+     * 10. Lazy iterator over primes >= start
+     */
+    public static PrimeIterator primeIterator(long start) {
+        return new PrimeIterator(start, Long.MAX_VALUE);
+    }
+
+    public static class PrimeIterator implements PrimitiveIterator.OfLong {
+        private final long end;
+        private final long[] bits = new long[SEGMENT_ODDS >>> 6];
+        private int[] basePrimes = new int[0];
+        private int baseCount;        // entries of basePrimes in use
+        private long baseLimit = 1;   // basePrimes hold every odd prime up to this value
+        private long nextLow;         // first number of the next segment to sieve
+        private boolean exhausted;    // no segment left after the current one
+        private boolean pendingTwo;
+        private long segFirst;        // odd number represented by bit 0 of the current segment
+        private int words, wordIdx;
+        private long word;
+
+        public PrimeIterator(long start, long end) {
+            start = Math.max(start, 2);
+            this.end = end;
+            this.nextLow = start;
+            this.exhausted = end < start;
+            this.pendingTwo = start <= 2 && end >= 2;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (pendingTwo) return true;
+            while (true) {
+                if (word != 0) return true;
+                if (wordIdx + 1 < words) {
+                    word = bits[++wordIdx];
+                    continue;
+                }
+                if (exhausted) return false;
+                nextSegment();
+            }
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) throw new NoSuchElementException();
+            if (pendingTwo) {
+                pendingTwo = false;
+                return 2;
+            }
+            long prime = segFirst + 2 * (((long) wordIdx << 6) + Long.numberOfTrailingZeros(word));
+            word &= word - 1;
+            return prime;
+        }
+
+        private void nextSegment() {
+            long lo = nextLow;
+            long hi = lo + Math.min(end - lo, 2L * SEGMENT_ODDS - 1);
+            long root = isqrt(hi);
+            if (root > baseLimit && baseLimit < BASE_CAP) growBase(Math.min(root, BASE_CAP));
+            int size = sieveSegment(basePrimes, baseCount, lo, hi, bits);
+            segFirst = lo | 1;
+            words = (size + 63) >>> 6;
+            if (root > baseLimit) {
+                // Survivors have no factor up to BASE_CAP but may still be composite
+                Montgomery m = new Montgomery(3);
+                for (int w = 0; w < words; w++) {
+                    for (long x = bits[w]; x != 0; x &= x - 1) {
+                        int j = Long.numberOfTrailingZeros(x);
+                        if (!isPrimeMillerRabin(segFirst + 2 * (((long) w << 6) + j), m)) bits[w] &= ~(1L << j);
+                    }
+                }
+            }
+            wordIdx = 0;
+            word = words > 0 ? bits[0] : 0;
+            if (hi == end) exhausted = true;
+            else nextLow = hi + 1;
+        }
+
+        // Extends basePrimes to every odd prime up to limit, sieving only the new part
+        private void growBase(long limit) {
+            limit = Math.max(limit, Math.min(BASE_CAP, 2 * baseLimit)); // at least double, so growth is rare
+            if (baseLimit * baseLimit < limit) { // current primes cannot sieve the new part: start over
+                basePrimes = basePrimes(limit * limit);
+                baseCount = basePrimes.length;
+                baseLimit = limit;
+                return;
+            }
+            long[] seg = new long[SEGMENT_ODDS >>> 6];
+            for (long lo = baseLimit + 1; lo <= limit; lo += 2L * SEGMENT_ODDS) {
+                long hi = Math.min(limit, lo + 2L * SEGMENT_ODDS - 1);
+                int size = sieveSegment(basePrimes, baseCount, lo, hi, seg);
+                long first = lo | 1;
+                for (int w = 0; w < (size + 63) >>> 6; w++) {
+                    for (long x = seg[w]; x != 0; x &= x - 1) {
+                        if (baseCount == basePrimes.length) basePrimes = Arrays.copyOf(basePrimes, Math.max(64, baseCount * 2));
+                        basePrimes[baseCount++] = (int) (first + 2 * (((long) w << 6) + Long.numberOfTrailingZeros(x)));
+                    }
+                }
+            }
+            baseLimit = limit;
+        }
+    }
+
+    static class PrimeSpliterator implements Spliterator.OfLong {
+        private static final long MIN_SPLIT = 4L * SEGMENT_ODDS;
+        private long low;
+        private final long high;
+        private PrimeIterator it;
+
+        PrimeSpliterator(long low, long high) {
+            this.low = Math.max(low, 2);
+            this.high = high;
+        }
+
+        @Override
+        public OfLong trySplit() {
+            if (it != null || high - low < 2 * MIN_SPLIT) return null;
+            long mid = low + (high - low) / 2;
+            PrimeSpliterator prefix = new PrimeSpliterator(low, mid - 1);
+            low = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (it == null) it = new PrimeIterator(low, high);
+            if (!it.hasNext()) return false;
+            action.accept(it.nextLong());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            if (it == null) it = new PrimeIterator(low, high);
+            while (it.hasNext()) action.accept(it.nextLong());
+        }
+
+        @Override
+        public long estimateSize() {
+            if (high < low) return 0;
+            if (high == Long.MAX_VALUE) return Long.MAX_VALUE;
+            return (long) ((high - low + 1) / Math.log(Math.max(high, 3)));
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | SORTED | NONNULL | IMMUTABLE;
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return null;
+        }
+    }
+
+    /**
+     * 11. Deterministic Miller-Rabin for any long (O(log^3 n))
+     * Trial division by the primes below 64 filters small inputs and most composites;
+     * the 7 witnesses below are proven to decide every n < 2^64.
+     */
+    public static boolean isPrimeMillerRabin(long n) {
+        return isPrimeMillerRabin(n, null);
+    }
+
+    // Variant that reuses the given Montgomery instance (or allocates one when null)
+    static boolean isPrimeMillerRabin(long n, Montgomery m) {
+        if (n < 2) return false;
+        for (long p : SMALL_PRIMES) {
+            if (n % p == 0) return n == p;
+        }
+        if (n < 64 * 64) return true;
+        m = m == null ? new Montgomery(n) : m.reset(n);
+        long d = n - 1;
+        int s = Long.numberOfTrailingZeros(d);
+        d >>>= s;
+        long minusOne = n - m.one;
+        for (long a : MR_WITNESSES) {
+            a %= n;
+            if (a == 0) continue;
+            long x = m.pow(m.toMont(a), d);
+            if (x == m.one || x == minusOne) continue;
+            boolean composite = true;
+            for (int r = 1; r < s && composite; r++) {
+                x = m.mul(x, x);
+                if (x == minusOne) composite = false;
+            }
+            if (composite) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 11. Batch primality: bit i of the result is set when nums[i] is prime
+     * Each task fills one 64-bit word of the result, so no synchronization is needed.
+     */
+    public static BitSet isPrimeBatch(long[] nums) {
+        long[] words = new long[(nums.length + 63) >>> 6];
+        IntStream.range(0, words.length).parallel().forEach(w -> {
+            long word = 0;
+            int end = Math.min(nums.length, (w + 1) << 6);
+            for (int i = w << 6; i < end; i++) {
+                if (isPrimeMillerRabin(nums[i])) word |= 1L << i;
+            }
+            words[w] = word;
+        });
+        return BitSet.valueOf(words);
+    }
+
+    static final long[] SMALL_PRIMES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59, 61};
+    static final long[] MR_WITNESSES = {2, 325, 9375, 28178, 450775, 9780504, 1795265022};
+
+    /**
+     * Montgomery arithmetic modulo an odd n < 2^63: values are kept as x * 2^64 mod n so that
+     * a modular multiply is two 64x64->128 multiplies and no division.
+     */
+    static final class Montgomery {
+        long n;
+        long nPrime; // -n^-1 mod 2^64
+        long one;    // 2^64 mod n, i.e. 1 in Montgomery form
+        long r2;     // 2^128 mod n
+
+        Montgomery(long n) {
+            reset(n);
+        }
+
+        // Re-targets this instance to a new modulus so hot loops can reuse it
+        Montgomery reset(long n) {
+            this.n = n;
+            long inv = n; // correct to 3 bits for odd n, each Newton step doubles that
+            for (int i = 0; i < 5; i++) inv *= 2 - n * inv;
+            this.nPrime = -inv;
+            this.one = Long.remainderUnsigned(-n, n);
+            long r = one;
+            for (int i = 0; i < 64; i++) {
+                r <<= 1;
+                if (Long.compareUnsigned(r, n) >= 0) r -= n;
+            }
+            this.r2 = r;
+            return this;
+        }
+
+        long toMont(long x) {
+            return mul(Math.floorMod(x, n), r2);
+        }
+
+        long fromMont(long x) {
+            return reduce(0, x);
+        }
+
+        long mul(long a, long b) {
+            return reduce(Math.multiplyHigh(a, b), a * b);
+        }
+
+        long pow(long base, long e) {
+            long result = one;
+            while (e > 0) {
+                if ((e & 1) != 0) result = mul(result, base);
+                base = mul(base, base);
+                e >>>= 1;
+            }
+            return result;
+        }
+
+        // REDC of the 128-bit value hi:lo, requires hi:lo < n * 2^64
+        private long reduce(long hi, long lo) {
+            long m = lo * nPrime;
+            long mnHi = Math.multiplyHigh(m, n) + ((m >> 63) & n); // unsigned high word of m * n
+            long t = hi + mnHi + (lo != 0 ? 1 : 0);
+            if (Long.compareUnsigned(t, n) >= 0) t -= n;
+            return t;
+        }
+    }
+
+    /**
+     * 12. Smallest Prime Factor table (linear sieve, O(n))
+     * spf[i] is the smallest prime dividing i, so factoring i <= limit is O(log i) lookups.
+     */
+    public static int[] smallestPrimeFactors(int limit) {
+        int[] spf = new int[Math.max(limit, 1) + 1];
+        int[] primes = new int[Math.max(16, (int) (1.3 * limit / Math.max(1, Math.log(limit))) + 16)];
+        int count = 0;
+        for (int i = 2; i <= limit; i++) {
+            if (spf[i] == 0) {
+                spf[i] = i;
+                primes[count++] = i;
+            }
+            for (int j = 0; j < count; j++) {
+                int p = primes[j];
+                if (p > spf[i] || (long) p * i > limit) break;
+                spf[p * i] = p;
+            }
+        }
+        return spf;
+    }
+
+    public interface FactorConsumer {
+        // factors[0..count) holds the prime factors of values[index] in ascending order;
+        // the array is reused for the next value, copy it if it must outlive the call
+        void accept(int index, long[] factors, int count);
+    }
+
+    /**
+     * 12. Factorization Engine
+     * Values covered by the SPF table are factored by table lookups; larger values are
+     * trial-divided by the primes below 64 and then split with Pollard-Brent rho, with
+     * Miller-Rabin deciding when a part is prime. All scratch state lives in the instance,
+     * so factor and factorAll allocate nothing. Not thread-safe: use one instance per thread.
+     */
+    public static final class Factorizer {
+        private final int[] spf;
+        private final long spfLimit;
+        private final long[] pending = new long[64];
+        private final long[] buffer = new long[64];
+        private final Montgomery mont = new Montgomery(3);
+        private final Montgomery primeMont = new Montgomery(3);
+
+        // spfLimit = 0 skips the table and uses rho for everything past trial division
+        public Factorizer(int spfLimit) {
+            this.spf = spfLimit >= 2 ? smallestPrimeFactors(spfLimit) : null;
+            this.spfLimit = spf == null ? 0 : spfLimit;
+        }
+
+        /**
+         * Writes the prime factors of n (with multiplicity, ascending) into out and
+         * returns how many were written. out needs room for 63 entries; n < 2 has none.
+         */
+        public int factor(long n, long[] out) {
+            if (n < 2) return 0;
+            int count = 0;
+            if (n > spfLimit) {
+                for (long p : SMALL_PRIMES) {
+                    while (n % p == 0) {
+                        out[count++] = p;
+                        n /= p;
+                    }
+                }
+            }
+            int top = 0;
+            if (n > 1) pending[top++] = n;
+            while (top > 0) {
+                long m = pending[--top];
+                if (m <= spfLimit) {
+                    while (m > 1) {
+                        int p = spf[(int) m];
+                        out[count++] = p;
+                        m /= p;
+                    }
+                } else if (isPrimeMillerRabin(m, primeMont)) {
+                    out[count++] = m;
+                } else {
+                    long d = pollardBrent(m);
+                    pending[top++] = d;
+                    pending[top++] = m / d;
+                }
+            }
+            for (int i = 1; i < count; i++) { // insertion sort, count <= 63
+                long v = out[i];
+                int j = i - 1;
+                while (j >= 0 && out[j] > v) {
+                    out[j + 1] = out[j];
+                    j--;
+                }
+                out[j + 1] = v;
+            }
+            return count;
+        }
+
+        /**
+         * 12. Batch factorization: reports each value's factors through one reused buffer
+         */
+        public void factorAll(long[] values, FactorConsumer consumer) {
+            for (int i = 0; i < values.length; i++) {
+                int count = factor(values[i], buffer);
+                consumer.accept(i, buffer, count);
+            }
+        }
+
+        // Returns a non-trivial divisor of the odd composite n (Brent's cycle detection)
+        private long pollardBrent(long n) {
+            Montgomery m = mont.reset(n);
+            final int batch = 128; // gcd once per this many multiplications
+            for (long c = 1; ; c++) {
+                long cm = m.toMont(c);
+                long y = m.toMont(2), x = y, ys = y, q = m.one, g = 1;
+                for (long r = 1; g == 1; r <<= 1) {
+                    x = y;
+                    for (long i = 0; i < r; i++) y = step(m, y, cm);
+                    for (long k = 0; k < r && g == 1; k += batch) {
+                        ys = y;
+                        for (long i = 0; i < Math.min(batch, r - k); i++) {
+                            y = step(m, y, cm);
+                            q = m.mul(q, x > y ? x - y : y - x);
+                        }
+                        g = gcd(q, n);
+                    }
+                }
+                if (g == n) { // the batch overshot, replay it one step at a time
+                    do {
+                        ys = step(m, ys, cm);
+                        g = gcd(x > ys ? x - ys : ys - x, n);
+                    } while (g == 1);
+                }
+                if (g != n) return g;
+            }
+        }
+
+        // Binary GCD of two values in [0, 2^63); kept here so Prime stays self-contained
+        private static long gcd(long a, long b) {
+            if (a == 0 || b == 0) return a | b;
+            int shift = Long.numberOfTrailingZeros(a | b);
+            a >>>= Long.numberOfTrailingZeros(a);
+            do {
+                b >>>= Long.numberOfTrailingZeros(b);
+                if (a > b) {
+                    long t = a;
+                    a = b;
+                    b = t;
+                }
+                b -= a;
+            } while (b != 0);
+            return a << shift;
+        }
+
+        private static long step(Montgomery m, long y, long c) {
+            long v = m.mul(y, y) + c; // both < n < 2^63, so the sum fits unsigned
+            return Long.compareUnsigned(v, m.n) >= 0 ? v - m.n : v;
+        }
+    }
+
+    /**
+     * 13. Sublinear Prime Counting (Meissel-Lehmer, roughly O(x^(2/3)) time)
+     * pi(x) = phi(x, a) + (b + a - 2)(b - a + 1) / 2 - sum over the primes between x^(1/4)
+     * and x^(1/2) of pi(x / p) (+ a correction for the primes below x^(1/3)).
+     * The pi table (packed sieve + per-word prefix counts up to about x^(2/3)), the base
+     * primes and the small phi table are built once per counter and shared by every query,
+     * so extra points cost only their own recursion. Thread-safe once constructed.
+     */
+    public static final class PrimeCounter {
+        private static final long MAX_TABLE = 1L << 30; // 64 MB of bits + 32 MB of counts
+        private static final int PHI_A = 6;
+        private static final int PHI_Q = 2 * 3 * 5 * 7 * 11 * 13;
+
+        private final long tableLimit;
+        private final long[] bits;        // odd-only sieve up to tableLimit
+        private final int[] wordPrefix;   // primes among the odd numbers before each word
+        private final int[] primes;       // primes up to sqrt(maxX), stored unsigned
+        private final int[][] smallPhi;   // smallPhi[a][r] = phi(r, a) for r < PHI_Q
+
+        public PrimeCounter(long maxX) {
+            long root = isqrt(Math.max(maxX, 4));
+            double twoThirds = Math.pow((double) maxX, 2.0 / 3.0);
+            long limit = Math.min((long) twoThirds, MAX_TABLE);
+            this.tableLimit = Math.max(Math.max(limit, root + 1), PHI_Q);
+            this.bits = oddSieveBits(tableLimit);
+            this.wordPrefix = new int[bits.length];
+            int running = 0;
+            for (int w = 0; w < bits.length; w++) {
+                wordPrefix[w] = running;
+                running += Long.bitCount(bits[w]);
+            }
+            int count = (int) piTable(root);
+            this.primes = new int[count];
+            int idx = 0;
+            for (long p = 2; idx < count; p++) {
+                if (isPrimeInBits(bits, p)) primes[idx++] = (int) p;
+            }
+            this.smallPhi = new int[PHI_A + 1][PHI_Q];
+            for (int r = 0; r < PHI_Q; r++) smallPhi[0][r] = r;
+            for (int a = 1; a <= PHI_A; a++) {
+                int p = primes[a - 1];
+                for (int r = 0; r < PHI_Q; r++) smallPhi[a][r] = smallPhi[a - 1][r] - smallPhi[a - 1][r / p];
+            }
+        }
+
+        public long pi(long x) {
+            if (x <= tableLimit) return piTable(x);
+            long a = pi(iroot(x, 4));
+            long b = pi(isqrt(x));
+            long c = pi(iroot(x, 3));
+            long sum = phi(x, (int) a) + (b + a - 2) * (b - a + 1) / 2;
+            for (long i = a + 1; i <= b; i++) {
+                long w = x / prime(i);
+                sum -= pi(w);
+                if (i <= c) {
+                    long bi = pi(isqrt(w));
+                    for (long j = i; j <= bi; j++) sum -= pi(w / prime(j)) - (j - 1);
+                }
+            }
+            return sum;
+        }
+
+        public long[] pi(long[] xs) {
+            long[] res = new long[xs.length];
+            for (int i = 0; i < xs.length; i++) res[i] = pi(xs[i]);
+            return res;
+        }
+
+        // Count of numbers in [1, x] not divisible by any of the first a primes
+        private long phi(long x, int a) {
+            if (a <= PHI_A) return (x / PHI_Q) * smallPhi[a][PHI_Q - 1] + smallPhi[a][(int) (x % PHI_Q)];
+            if (x <= tableLimit && a < primes.length) {
+                long next = prime(a + 1);
+                if (next * next > x) return x < 1 ? 0 : Math.max(1, piTable(x) - a + 1);
+            }
+            return phi(x, a - 1) - phi(x / prime(a), a - 1);
+        }
+
+        // i-th prime, 1-based
+        private long prime(long i) {
+            return Integer.toUnsignedLong(primes[(int) (i - 1)]);
+        }
+
+        private long piTable(long x) {
+            if (x < 2) return 0;
+            long idx = (x - 1) >>> 1; // index of the largest odd number <= x
+            int w = (int) (idx >>> 6);
+            return 1 + wordPrefix[w] + Long.bitCount(bits[w] & (-1L >>> (63 - (idx & 63))));
+        }
+
+        private static long iroot(long x, int k) {
+            long r = (long) Math.pow((double) x, 1.0 / k);
+            while (r > 0 && powExceeds(r, k, x)) r--;
+            while (!powExceeds(r + 1, k, x)) r++;
+            return r;
+        }
+
+        // true when r^k > x, without overflowing
+        private static boolean powExceeds(long r, int k, long x) {
+            long v = 1;
+            for (int i = 0; i < k; i++) {
+                if (v > x / r) return true;
+                v *= r;
+            }
+            return v > x;
+        }
+    }
+
+    /**
+     * 14. Persistent Memory-mapped Prime Table
+     * The odd-only sieve bits are stored on disk once and then opened with FileChannel.map,
+     * so isPrime / countPrimes / range queries read the mapped bits directly and every
+     * process opening the file shares the same page cache. Layout (little-endian):
+     *   header (64 bytes): magic, version, limit, word count, block count, CRC32C
+     *   words: the oddSieveBits bitset
+     *   blocks: for every 64 words, the number of odd primes before them
+     * A table opened with a larger limit than it holds is extended by sieving only the new
+     * range into a copy that then atomically replaces the file; existing mappings keep
+     * reading the old file until they are closed.
+     */
+    public static final class PrimeTable implements AutoCloseable {
+        private static final long MAGIC = 0x314C425450495250L; // "PRIMTBL1"
+        private static final int VERSION = 1;
+        private static final int HEADER = 64;
+        private static final int CHUNK_SHIFT = 30; // map the file in 1 GB pieces
+
+        private final long limit;
+        private final long wordCount;
+        private final long blockBase; // file offset of the block prefix counts
+        private MappedByteBuffer[] chunks;
+
+        private PrimeTable(long limit, long wordCount, MappedByteBuffer[] chunks) {
+            this.limit = limit;
+            this.wordCount = wordCount;
+            this.blockBase = HEADER + wordCount * 8;
+            this.chunks = chunks;
+        }
+
+        /**
+         * Opens the table in file, creating it or extending it until it covers limit.
+         */
+        public static PrimeTable open(Path file, long limit) throws IOException {
+            if (limit < 2) limit = 2;
+            if (!Files.exists(file)) {
+                build(file, 0, limit);
+                return map(file);
+            }
+            PrimeTable table = map(file);
+            if (table.limit >= limit) return table;
+            long oldLimit = table.limit;
+            table.close();
+            build(file, oldLimit, limit);
+            return map(file);
+        }
+
+        public long limit() {
+            return limit;
+        }
+
+        public boolean isPrime(long n) {
+            checkLimit(n);
+            if (n == 2) return true;
+            if (n < 2 || (n & 1) == 0) return false;
+            long i = n >>> 1;
+            return (word(i >>> 6) & (1L << i)) != 0;
+        }
+
+        public long countPrimes(long n) {
+            checkLimit(n);
+            if (n < 2) return 0;
+            long idx = (n - 1) >>> 1;
+            long w = idx >>> 6;
+            long count = 1 + getLong(blockBase + (w >>> 6) * 8);
+            for (long i = w & ~63L; i < w; i++) count += Long.bitCount(word(i));
+            return count + Long.bitCount(word(w) & (-1L >>> (63 - (idx & 63))));
+        }
+
+        public long countPrimesInRange(long low, long high) {
+            low = Math.max(low, 2);
+            if (high < low) return 0;
+            return countPrimes(high) - countPrimes(low - 1);
+        }
+
+        public long[] primesInRange(long low, long high) {
+            low = Math.max(low, 2);
+            long count = countPrimesInRange(low, high);
+            if (count > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Too many primes in range to materialize");
+            long[] primes = new long[(int) count];
+            int idx = 0;
+            if (low <= 2 && high >= 2) primes[idx++] = 2;
+            long from = Math.max(low, 3) >>> 1, to = (high - 1) >>> 1; // odd indices
+            for (long w = from >>> 6; idx < count && w <= to >>> 6; w++) {
+                long word = word(w);
+                if (w == from >>> 6) word &= -1L << from;
+                while (word != 0) {
+                    long i = (w << 6) + Long.numberOfTrailingZeros(word);
+                    if (i > to) break;
+                    primes[idx++] = 2 * i + 1;
+                    word &= word - 1;
+                }
+            }
+            return primes;
+        }
+
+        // Drops the mappings; the OS unmaps them once the buffers are collected
+        @Override
+        public void close() {
+            chunks = null;
+        }
+
+        private void checkLimit(long n) {
+            if (n > limit) throw new IllegalArgumentException(n + " is beyond the table limit " + limit);
+        }
+
+        private long word(long i) {
+            return getLong(HEADER + i * 8);
+        }
+
+        private long getLong(long pos) {
+            return chunks[(int) (pos >>> CHUNK_SHIFT)].getLong((int) (pos & ((1L << CHUNK_SHIFT) - 1)));
+        }
+
+        private static PrimeTable map(Path file) throws IOException {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(ch, header, 0);
+                header.flip();
+                if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION) throw new IOException("Not a prime table: " + file);
+                long limit = header.getLong(16), wordCount = header.getLong(24), blockCount = header.getLong(32);
+                if (ch.size() != HEADER + (wordCount + blockCount) * 8) throw new IOException("Truncated prime table: " + file);
+                MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((ch.size() + (1L << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT)];
+                CRC32C crc = new CRC32C();
+                for (int i = 0; i < chunks.length; i++) {
+                    long start = (long) i << CHUNK_SHIFT;
+                    chunks[i] = ch.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << CHUNK_SHIFT, ch.size() - start));
+                    chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+                    ByteBuffer body = chunks[i].duplicate();
+                    if (i == 0) body.position(HEADER);
+                    crc.update(body);
+                }
+                if (crc.getValue() != header.getLong(40)) throw new IOException("Prime table checksum mismatch: " + file);
+                return new PrimeTable(limit, wordCount, chunks);
+            }
+        }
+
+        // Sieves (oldLimit, newLimit] into a copy of file and atomically swaps it in
+        private static void build(Path file, long oldLimit, long newLimit) throws IOException {
+            Path dir = file.toAbsolutePath().getParent();
+            Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                if (oldLimit > 0) Files.copy(file, tmp, StandardCopyOption.REPLACE_EXISTING);
+                try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    long firstWord = oldLimit > 0 ? ((oldLimit + 1) / 2) >>> 6 : 0; // re-sieve the partial last word
+                    long wordCount = ((newLimit + 1) / 2 + 63) >>> 6;
+                    long blockCount = (wordCount + 63) >>> 6;
+                    ch.truncate(HEADER + firstWord * 8);
+                    int[] base = basePrimes(newLimit);
+                    long[] seg = new long[SEGMENT_ODDS >>> 6];
+                    ByteBuffer buf = ByteBuffer.allocateDirect(seg.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+                    long pos = HEADER + firstWord * 8;
+                    for (long lo = firstWord * 128; lo <= newLimit; lo += 2L * SEGMENT_ODDS) {
+                        long hi = Math.min(newLimit, lo + 2L * SEGMENT_ODDS - 1);
+                        int words = (sieveSegment(base, lo, hi, seg) + 63) >>> 6;
+                        buf.clear();
+                        for (int i = 0; i < words; i++) buf.putLong(seg[i]);
+                        buf.flip();
+                        while (buf.hasRemaining()) pos += ch.write(buf, pos);
+                    }
+                    // Second pass: block prefix counts and the checksum over words + blocks
+                    CRC32C crc = new CRC32C();
+                    ByteBuffer blocks = ByteBuffer.allocate((int) Math.min(blockCount * 8, 1 << 20)).order(ByteOrder.LITTLE_ENDIAN);
+                    ByteBuffer in = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+                    long blocksPos = HEADER + wordCount * 8, running = 0;
+                    for (long w = 0; w < wordCount; ) {
+                        in.clear();
+                        in.limit((int) Math.min(in.capacity(), (wordCount - w) * 8));
+                        readFully(ch, in, HEADER + w * 8);
+                        in.flip();
+                        crc.update(in.duplicate());
+                        while (in.hasRemaining()) {
+                            if ((w & 63) == 0) {
+                                blocks.putLong(running);
+                                if (!blocks.hasRemaining()) blocksPos = flush(ch, blocks, blocksPos);
+                            }
+                            running += Long.bitCount(in.getLong());
+                            w++;
+                        }
+                    }
+                    flush(ch, blocks, blocksPos);
+                    // The checksum continues over the block counts just written
+                    ByteBuffer tail = ByteBuffer.allocateDirect(1 << 20);
+                    for (long p = HEADER + wordCount * 8; p < HEADER + (wordCount + blockCount) * 8; ) {
+                        tail.clear();
+                        tail.limit((int) Math.min(tail.capacity(), HEADER + (wordCount + blockCount) * 8 - p));
+                        readFully(ch, tail, p);
+                        tail.flip();
+                        p += tail.remaining();
+                        crc.update(tail);
+                    }
+                    ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                    header.putLong(MAGIC).putInt(VERSION).putInt(0).putLong(newLimit)
+                          .putLong(wordCount).putLong(blockCount).putLong(crc.getValue());
+                    header.clear();
+                    ch.write(header, 0);
+                    ch.force(true);
+                }
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+
+        private static long flush(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) pos += ch.write(buf, pos);
+            buf.clear();
+            return pos;
+        }
+
+        private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+            while (buf.hasRemaining()) {
+                int n = ch.read(buf, pos);
+                if (n < 0) throw new IOException("Unexpected end of prime table");
+                pos += n;
+            }
+        }
+    }
 }
@@ -1,4 +1,14 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.LongPredicate;
 
 /**
  * StringConcepts: DSA String Concepts in Java
@@ -16,10 +26,19 @@ import java.util.*;
  * 9. Longest Common Prefix
  * 10. String Rotation Check
  * 11. Contains Duplicate in Array (utility)
+ * 12. Longest Substring Without Repeating Characters
+ * 13. Longest Palindromic Substring
+ * 14. Check if String is a Permutation of Another
+ * 15. String Compression
+ * 16. Edit Distance (Levenshtein)
+ * 17. Rabin-Karp Substring Search (64-bit rolling hash; streaming over Reader / ReadableByteChannel)
+ * 18. Sliding Window Maximum
+ * 19. Aho-Corasick Multi-pattern Search (dense DFA over byte classes, CharSequence / byte[] / ByteBuffer)
+ * 20. Byte-level Substring Search (Horspool + SWAR rare-byte prefilter over byte[] / ByteBuffer, no Strings)
  */
 
 public class StringConcepts {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         // 1. Anagram Check
         System.out.println("isAnagram? " + isAnagramEffective("anagram", "nagaram"));
         System.out.println("isAnagram (sort)? " + isAnagram("listen", "silent"));
@@ -71,9 +90,23 @@ public class StringConcepts {
 
         // 17. Rabin-Karp Substring Search
         System.out.println("Rabin-Karp index of 'ana' in 'banana': " + rabinKarp("banana", "ana"));
+        System.out.println("Rabin-Karp (streaming) index of 'ana': " + rabinKarp(new StringReader("banana"), "ana"));
 
         // 18. Sliding Window Maximum (for string of digits, window size 3)
         System.out.println("Sliding window max in '123459876' (k=3): " + Arrays.toString(slidingWindowMax("123459876", 3)));
+
+        // 19. Aho-Corasick: every occurrence of every keyword in one pass
+        AhoCorasick keywords = AhoCorasick.compile("he", "she", "his", "hers");
+        keywords.search("ushers", (pattern, start, end) -> {
+            System.out.println("Aho-Corasick match '" + keywords.pattern(pattern) + "' at [" + start + ", " + end + ")");
+            return true;
+        });
+
+        // 20. Byte-level Substring Search: offsets into UTF-8 bytes, nothing decoded
+        byte[] log = "GET /index.html 200\nGET /missing 404\n".getBytes(StandardCharsets.UTF_8);
+        ByteSearcher notFound = ByteSearcher.compile(" 404".getBytes(StandardCharsets.UTF_8));
+        System.out.println("Byte search ' 404' at offset " + notFound.indexOf(log, 0, log.length)
+                + ", in a direct buffer at " + notFound.indexOf(ByteBuffer.allocateDirect(log.length).put(log).flip()));
     }
     // 12. Longest Substring Without Repeating Characters (Optimal O(n))
     static int longestSubstringWithoutRepeating(String s) {
@@ -156,28 +189,136 @@ public class StringConcepts {
         return dp[m][n];
     }
 
-    // 17. Rabin-Karp Substring Search (O(n+m))
+    // 17. Rabin-Karp Substring Search (O(n+m) expected)
+    // Rolling hash modulo the Mersenne prime 2^61 - 1 with a base drawn at startup, so spurious
+    // hits are about 1 in 2^61 per position even for adversarial input; hits are confirmed in place.
     static int rabinKarp(String haystack, String needle) {
-        if (needle.length() == 0) return 0;
         int n = haystack.length(), m = needle.length();
-        int base = 256, mod = 101;
-        int h = 1;
-        for (int i = 0; i < m - 1; i++) h = (h * base) % mod;
-        int p = 0, t = 0;
+        if (m == 0) return 0;
+        if (m > n) return -1;
+        long pow = powMod61(RK_BASE, m - 1), p = 0, t = 0;
         for (int i = 0; i < m; i++) {
-            p = (base * p + needle.charAt(i)) % mod;
-            t = (base * t + haystack.charAt(i)) % mod;
+            p = rollIn(p, needle.charAt(i));
+            t = rollIn(t, haystack.charAt(i));
         }
-        for (int i = 0; i <= n - m; i++) {
-            if (p == t) {
-                if (haystack.substring(i, i + m).equals(needle)) return i;
+        for (int i = 0; ; i++) {
+            if (p == t && haystack.regionMatches(i, needle, 0, m)) return i;
+            if (i == n - m) return -1;
+            t = rollIn(rollOut(t, haystack.charAt(i), pow), haystack.charAt(i + m));
+        }
+    }
+
+    // 17. Rabin-Karp over a Reader, read in chunks: index of the first match in chars, or -1
+    static long rabinKarp(Reader in, String needle) throws IOException {
+        long[] first = {-1};
+        rabinKarp(in, needle, at -> {
+            first[0] = at;
+            return false;
+        });
+        return first[0];
+    }
+
+    // 17. Streaming Rabin-Karp: onMatch receives each match's char offset (false stops reading).
+    // The last m chars are kept in a ring, so matches spanning chunk boundaries are found and
+    // checked without re-reading or buffering the input. Returns the number of matches reported.
+    static long rabinKarp(Reader in, String needle, LongPredicate onMatch) throws IOException {
+        int m = needle.length();
+        if (m == 0) throw new IllegalArgumentException("Empty needle");
+        char[] pattern = needle.toCharArray(), ring = new char[m], buf = new char[RK_CHUNK];
+        long pow = powMod61(RK_BASE, m - 1), p = 0, t = 0, pos = 0, count = 0;
+        for (char c : pattern) p = rollIn(p, c);
+        for (int read; (read = in.read(buf)) >= 0; ) {
+            for (int j = 0; j < read; j++, pos++) {
+                int slot = (int) (pos % m);
+                if (pos >= m) t = rollOut(t, ring[slot], pow);
+                t = rollIn(t, buf[j]);
+                ring[slot] = buf[j];
+                if (pos >= m - 1 && t == p && ringMatches(ring, (slot + 1) % m, pattern)) {
+                    count++;
+                    if (!onMatch.test(pos + 1 - m)) return count;
+                }
             }
-            if (i < n - m) {
-                t = (base * (t - haystack.charAt(i) * h) + haystack.charAt(i + m)) % mod;
-                if (t < 0) t += mod;
+        }
+        return count;
+    }
+
+    // 17. Rabin-Karp over a byte channel (e.g. a FileChannel): offset of the first match, or -1
+    static long rabinKarp(ReadableByteChannel in, byte[] needle) throws IOException {
+        long[] first = {-1};
+        rabinKarp(in, needle, at -> {
+            first[0] = at;
+            return false;
+        });
+        return first[0];
+    }
+
+    // 17. Streaming Rabin-Karp over bytes, same scheme as the Reader version
+    static long rabinKarp(ReadableByteChannel in, byte[] needle, LongPredicate onMatch) throws IOException {
+        int m = needle.length;
+        if (m == 0) throw new IllegalArgumentException("Empty needle");
+        byte[] ring = new byte[m];
+        ByteBuffer buf = ByteBuffer.allocate(RK_CHUNK);
+        long pow = powMod61(RK_BASE, m - 1), p = 0, t = 0, pos = 0, count = 0;
+        for (byte b : needle) p = rollIn(p, b & 0xFF);
+        while (in.read(buf) >= 0) {
+            buf.flip();
+            for (int j = 0, read = buf.limit(); j < read; j++, pos++) {
+                byte b = buf.get(j);
+                int slot = (int) (pos % m);
+                if (pos >= m) t = rollOut(t, ring[slot] & 0xFF, pow);
+                t = rollIn(t, b & 0xFF);
+                ring[slot] = b;
+                if (pos >= m - 1 && t == p && ringMatches(ring, (slot + 1) % m, needle)) {
+                    count++;
+                    if (!onMatch.test(pos + 1 - m)) return count;
+                }
             }
+            buf.clear();
         }
-        return -1;
+        return count;
+    }
+
+    static final long MERSENNE_61 = (1L << 61) - 1;
+    static final long RK_BASE = new SplittableRandom().nextLong(1L << 16, MERSENNE_61); // above any char value
+    static final int RK_CHUNK = 1 << 16;
+
+    // (a * b) mod 2^61 - 1 for a, b < 2^61: fold the 122-bit product at bit 61
+    static long mulMod61(long a, long b) {
+        long lo = a * b, hi = Math.multiplyHigh(a, b);
+        long r = (lo & MERSENNE_61) + (lo >>> 61) + (hi << 3);
+        r = (r & MERSENNE_61) + (r >>> 61);
+        return r >= MERSENNE_61 ? r - MERSENNE_61 : r;
+    }
+
+    static long powMod61(long base, int exp) {
+        long result = 1;
+        for (; exp > 0; exp >>= 1, base = mulMod61(base, base)) {
+            if ((exp & 1) != 0) result = mulMod61(result, base);
+        }
+        return result;
+    }
+
+    // Appends c to the window hash
+    private static long rollIn(long h, int c) {
+        h = mulMod61(h, RK_BASE) + c;
+        return h >= MERSENNE_61 ? h - MERSENNE_61 : h;
+    }
+
+    // Removes c, the oldest of the window's m values (pow = base^(m-1))
+    private static long rollOut(long h, int c, long pow) {
+        h -= mulMod61(c, pow);
+        return h < 0 ? h + MERSENNE_61 : h;
+    }
+
+    // Compares the ring, starting at its oldest slot, with the pattern
+    private static boolean ringMatches(char[] ring, int oldest, char[] pattern) {
+        int m = ring.length, k = m - oldest;
+        return Arrays.equals(ring, oldest, m, pattern, 0, k) && Arrays.equals(ring, 0, oldest, pattern, k, m);
+    }
+
+    private static boolean ringMatches(byte[] ring, int oldest, byte[] pattern) {
+        int m = ring.length, k = m - oldest;
+        return Arrays.equals(ring, oldest, m, pattern, 0, k) && Arrays.equals(ring, 0, oldest, pattern, k, m);
     }
 
     // 18. Sliding Window Maximum (for string of digits)
@@ -235,7 +376,7 @@ public class StringConcepts {
     static int substringSearch(String haystack, String needle) {
         int n = haystack.length(), m = needle.length();
         for (int i = 0; i <= n - m; i++) {
-            if (haystack.substring(i, i + m).equals(needle)) return i;
+            if (haystack.regionMatches(i, needle, 0, m)) return i; // compares in place, no substring
         }
         return -1;
     }
@@ -293,13 +434,340 @@ public class StringConcepts {
         return s.length() == goal.length() && (s + s).contains(goal);
     }
 
-    // 11. Contains Duplicate in Array (utility)
+    // 11. Contains Duplicate in Array (utility): sorts a copy and compares neighbours, no boxing.
+    // For very large inputs ArrayConcepts.containsDuplicateParallel picks a dense bitset or a
+    // parallel radix sort by value range.
     static boolean containsDuplicateList(int[] nums) {
-        Set<Integer> seenNumbers = new HashSet<>();
-        for (int num : nums) {
-            if (!seenNumbers.add(num)) return true;
+        int[] sorted = nums.clone();
+        Arrays.parallelSort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) return true;
         }
         return false;
     }
-}
 
+    // 19. Aho-Corasick Multi-pattern Search: all patterns are found in one pass over the text.
+    // Patterns are compiled to UTF-8 and then to a complete DFA: a dense goto table with one row
+    // per trie state and one column per byte class (bytes that occur in no pattern share class 0),
+    // failure transitions already folded in, so every input byte costs one table lookup. Matches
+    // are reported through MatchListener without allocating. The compiled automaton is never
+    // modified, so one instance can be shared by any number of threads. Patterns must be valid
+    // UTF-16; an unpaired surrogate in the text resets the search, so no match spans it.
+    static final class AhoCorasick {
+        // Receives pattern id and [start, end) of each match; return false to stop the search
+        interface MatchListener {
+            boolean onMatch(int pattern, int start, int end);
+        }
+
+        private final String[] patterns;
+        private final int[] byteLengths;
+        private final int[] byteClass = new int[256];
+        private final int classes;
+        private final int[] delta;     // delta[state * classes + class] = next state
+        private final int[] output;    // first state on the suffix chain with patterns ending there, 0 if none
+        private final int[] dictLink;  // next such state further down the suffix chain, 0 if none
+        private final int[] firstPattern, nextPattern; // patterns ending at a state, as linked lists
+
+        private AhoCorasick(String[] patterns) {
+            this.patterns = patterns.clone();
+            int k = patterns.length, totalBytes = 0;
+            byte[][] encoded = new byte[k][];
+            byteLengths = new int[k];
+            for (int p = 0; p < k; p++) {
+                if (patterns[p].isEmpty()) throw new IllegalArgumentException("Empty pattern at " + p);
+                if (hasUnpairedSurrogate(patterns[p])) throw new IllegalArgumentException("Unpaired surrogate in pattern at " + p);
+                encoded[p] = patterns[p].getBytes(StandardCharsets.UTF_8);
+                byteLengths[p] = encoded[p].length;
+                totalBytes += encoded[p].length;
+            }
+            int c = 1;
+            for (byte[] e : encoded) {
+                for (byte b : e) if (byteClass[b & 0xFF] == 0) byteClass[b & 0xFF] = c++;
+            }
+            classes = c;
+            int maxStates = totalBytes + 1;
+            if ((long) maxStates * classes > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Too many patterns");
+            // trie: 0 marks a missing edge (the root is never a child)
+            int[] trie = new int[maxStates * classes];
+            firstPattern = new int[maxStates];
+            nextPattern = new int[k];
+            Arrays.fill(firstPattern, -1);
+            int states = 1;
+            for (int p = 0; p < k; p++) {
+                int s = 0;
+                for (byte b : encoded[p]) {
+                    int i = s * classes + byteClass[b & 0xFF];
+                    if (trie[i] == 0) trie[i] = states++;
+                    s = trie[i];
+                }
+                nextPattern[p] = firstPattern[s];
+                firstPattern[s] = p;
+            }
+            delta = Arrays.copyOf(trie, states * classes);
+            output = new int[states];
+            dictLink = new int[states];
+            int[] fail = new int[states], queue = new int[states];
+            int head = 0, tail = 0;
+            for (int a = 0; a < classes; a++) {
+                if (delta[a] != 0) queue[tail++] = delta[a]; // depth 1: fail to the root
+            }
+            while (head < tail) { // BFS: a state's row holds only trie edges until it is dequeued
+                int s = queue[head++];
+                int f = fail[s];
+                dictLink[s] = output[f];
+                output[s] = firstPattern[s] >= 0 ? s : dictLink[s];
+                for (int a = 0; a < classes; a++) {
+                    int t = delta[s * classes + a];
+                    if (t != 0) {
+                        fail[t] = delta[f * classes + a];
+                        queue[tail++] = t;
+                    } else {
+                        delta[s * classes + a] = delta[f * classes + a];
+                    }
+                }
+            }
+        }
+
+        static AhoCorasick compile(String... patterns) {
+            return new AhoCorasick(patterns);
+        }
+
+        static AhoCorasick compile(Collection<String> patterns) {
+            return new AhoCorasick(patterns.toArray(new String[0]));
+        }
+
+        int patternCount() {
+            return patterns.length;
+        }
+
+        String pattern(int id) {
+            return patterns[id];
+        }
+
+        // Searches chars, UTF-8 encoded on the fly; positions are char indexes. Returns matches reported.
+        int search(CharSequence text, MatchListener listener) {
+            int s = 0, count = 0;
+            for (int i = 0, n = text.length(); i < n; i++) {
+                char ch = text.charAt(i);
+                if (ch < 0x80) {
+                    s = step(s, ch);
+                } else if (ch < 0x800) {
+                    s = step(step(s, 0xC0 | ch >> 6), 0x80 | ch & 0x3F);
+                } else if (Character.isHighSurrogate(ch) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(ch, text.charAt(++i));
+                    s = step(step(step(step(s, 0xF0 | cp >> 18), 0x80 | cp >> 12 & 0x3F), 0x80 | cp >> 6 & 0x3F), 0x80 | cp & 0x3F);
+                } else if (Character.isSurrogate(ch)) {
+                    s = 0; // unpaired surrogate: no pattern contains one, so restart at the root
+                } else {
+                    s = step(step(step(s, 0xE0 | ch >> 12), 0x80 | ch >> 6 & 0x3F), 0x80 | ch & 0x3F);
+                }
+                if (output[s] != 0) {
+                    for (int o = output[s]; o != 0; o = dictLink[o]) {
+                        for (int p = firstPattern[o]; p >= 0; p = nextPattern[p]) {
+                            count++;
+                            if (!listener.onMatch(p, i + 1 - patterns[p].length(), i + 1)) return count;
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        // Searches bytes [from, to) of text; positions are indexes into text
+        int search(byte[] text, int from, int to, MatchListener listener) {
+            Objects.checkFromToIndex(from, to, text.length);
+            int s = 0, count = 0;
+            for (int i = from; i < to; i++) {
+                s = delta[s * classes + byteClass[text[i] & 0xFF]];
+                if (output[s] != 0) {
+                    for (int o = output[s]; o != 0; o = dictLink[o]) {
+                        for (int p = firstPattern[o]; p >= 0; p = nextPattern[p]) {
+                            count++;
+                            if (!listener.onMatch(p, i + 1 - byteLengths[p], i + 1)) return count;
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        // Searches the buffer between position and limit (the position is not moved); positions are buffer indexes
+        int search(ByteBuffer buf, MatchListener listener) {
+            if (buf.hasArray()) {
+                int off = buf.arrayOffset();
+                return search(buf.array(), off + buf.position(), off + buf.limit(),
+                        (p, start, end) -> listener.onMatch(p, start - off, end - off));
+            }
+            int s = 0, count = 0;
+            for (int i = buf.position(), to = buf.limit(); i < to; i++) {
+                s = delta[s * classes + byteClass[buf.get(i) & 0xFF]];
+                if (output[s] != 0) {
+                    for (int o = output[s]; o != 0; o = dictLink[o]) {
+                        for (int p = firstPattern[o]; p >= 0; p = nextPattern[p]) {
+                            count++;
+                            if (!listener.onMatch(p, i + 1 - byteLengths[p], i + 1)) return count;
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        boolean containsAny(CharSequence text) {
+            return search(text, (p, start, end) -> false) > 0;
+        }
+
+        private int step(int s, int b) {
+            return delta[s * classes + byteClass[b]];
+        }
+
+        private static boolean hasUnpairedSurrogate(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                char ch = s.charAt(i);
+                if (Character.isHighSurrogate(ch) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    i++;
+                } else if (Character.isSurrogate(ch)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // 20. Byte-level Substring Search over UTF-8 byte[] or ByteBuffer (heap, direct or mapped):
+    // returns offsets and never decodes to Strings. A compiled ByteSearcher first hunts for the
+    // needle's rarest byte 8 bytes at a time (SWAR: XOR with the byte broadcast, then the
+    // has-zero-byte bit trick) and verifies each hit with a bulk compare. If hits come too often
+    // for that to pay off, the rest of the input is searched with Boyer-Moore-Horspool.
+    // Immutable, so one instance can serve many threads.
+    static final class ByteSearcher {
+        private static final VarHandle LONGS_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+        private static final long ONES = 0x0101010101010101L, HIGHS = 0x8080808080808080L;
+        // Bytes in rough order of frequency in text and logs; anything not listed counts as rare
+        private static final String COMMON = " etaoinsrhldcumfpgwybvkxjqzETAOINSRHLDCUMFPGWYBVKXJQZ0123456789.,:;-_/=\"'\n()[]";
+
+        private final byte[] needle;
+        private final int rareOffset; // position of the rare byte within the needle
+        private final long rareBroadcast;
+        private final int[] shift = new int[256]; // Horspool shift by the byte under the window's last position
+
+        private ByteSearcher(byte[] needle) {
+            this.needle = needle.clone();
+            int m = needle.length, best = 0;
+            for (int i = 1; i < m; i++) {
+                if (frequency(needle[i]) < frequency(needle[best])) best = i;
+            }
+            rareOffset = best;
+            rareBroadcast = m == 0 ? 0 : ONES * (needle[best] & 0xFF);
+            Arrays.fill(shift, Math.max(m, 1));
+            for (int i = 0; i < m - 1; i++) shift[needle[i] & 0xFF] = m - 1 - i;
+        }
+
+        static ByteSearcher compile(byte[] needle) {
+            return new ByteSearcher(needle);
+        }
+
+        // 0 for bytes outside COMMON, otherwise higher for more frequent bytes; UTF-8 lead and
+        // continuation bytes are common in non-ASCII text, so they rank in the middle
+        private static int frequency(byte b) {
+            int i = COMMON.indexOf(b & 0xFF);
+            if (i >= 0) return 2 * COMMON.length() - i;
+            return (b & 0x80) != 0 ? COMMON.length() / 2 : 0;
+        }
+
+        int needleLength() {
+            return needle.length;
+        }
+
+        // First match starting in [from, to - m], or -1
+        int indexOf(byte[] hay, int from, int to) {
+            Objects.checkFromToIndex(from, to, hay.length);
+            int m = needle.length;
+            if (m == 0) return from;
+            int last = to - m; // last possible match start
+            int p = from + rareOffset, checks = 0;
+            for (; p + 8 <= last + rareOffset + 1; p += 8) {
+                if (checks > 8 + ((p - from) >>> 4)) return horspool(hay, p - rareOffset, to); // prefilter not paying off
+                long x = (long) LONGS_LE.get(hay, p) ^ rareBroadcast;
+                long hits = (x - ONES) & ~x & HIGHS;
+                while (hits != 0) {
+                    int start = p + (Long.numberOfTrailingZeros(hits) >>> 3) - rareOffset;
+                    checks++;
+                    if (Arrays.equals(hay, start, start + m, needle, 0, m)) return start;
+                    hits &= hits - 1;
+                }
+            }
+            for (int start = p - rareOffset; start <= last; start++) {
+                if (hay[start + rareOffset] == needle[rareOffset] && Arrays.equals(hay, start, start + m, needle, 0, m)) return start;
+            }
+            return -1;
+        }
+
+        // First match between the buffer's position and limit, as a buffer index, or -1 (the position is not moved)
+        int indexOf(ByteBuffer buf) {
+            return indexOf(buf, buf.position(), buf.limit());
+        }
+
+        int indexOf(ByteBuffer buf, int from, int to) {
+            Objects.checkFromToIndex(from, to, buf.limit());
+            if (buf.hasArray()) {
+                int off = buf.arrayOffset(), i = indexOf(buf.array(), off + from, off + to);
+                return i < 0 ? -1 : i - off;
+            }
+            int m = needle.length;
+            if (m == 0) return from;
+            ByteBuffer le = buf.duplicate().order(ByteOrder.LITTLE_ENDIAN); // a view, the bytes are not copied
+            int last = to - m;
+            int p = from + rareOffset, checks = 0;
+            for (; p + 8 <= last + rareOffset + 1; p += 8) {
+                if (checks > 8 + ((p - from) >>> 4)) return horspool(le, p - rareOffset, to);
+                long x = le.getLong(p) ^ rareBroadcast;
+                long hits = (x - ONES) & ~x & HIGHS;
+                while (hits != 0) {
+                    int start = p + (Long.numberOfTrailingZeros(hits) >>> 3) - rareOffset;
+                    checks++;
+                    if (matchesAt(le, start)) return start;
+                    hits &= hits - 1;
+                }
+            }
+            for (int start = p - rareOffset; start <= last; start++) {
+                if (le.get(start + rareOffset) == needle[rareOffset] && matchesAt(le, start)) return start;
+            }
+            return -1;
+        }
+
+        private int horspool(byte[] hay, int from, int to) {
+            int m = needle.length, lastInNeedle = m - 1;
+            byte lastByte = needle[lastInNeedle];
+            for (int i = from; i <= to - m; ) {
+                byte b = hay[i + lastInNeedle];
+                if (b == lastByte && Arrays.equals(hay, i, i + lastInNeedle, needle, 0, lastInNeedle)) return i;
+                i += shift[b & 0xFF];
+            }
+            return -1;
+        }
+
+        private int horspool(ByteBuffer hay, int from, int to) {
+            int m = needle.length, lastInNeedle = m - 1;
+            byte lastByte = needle[lastInNeedle];
+            for (int i = from; i <= to - m; ) {
+                byte b = hay.get(i + lastInNeedle);
+                if (b == lastByte && matchesAt(hay, i)) return i;
+                i += shift[b & 0xFF];
+            }
+            return -1;
+        }
+
+        private boolean matchesAt(ByteBuffer hay, int start) {
+            for (int j = 0; j < needle.length; j++) {
+                if (hay.get(start + j) != needle[j]) return false;
+            }
+            return true;
+        }
+    }
+
+    // 20. First offset of needle in haystack's bytes, or -1 (compile a ByteSearcher to reuse the tables)
+    static int indexOf(byte[] haystack, byte[] needle) {
+        return ByteSearcher.compile(needle).indexOf(haystack, 0, haystack.length);
+    }
+}
@@ -0,0 +1,114 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * ArrayVectorKernels: SIMD tier for the linear scans in ArrayConcepts
+ *
+ * Uses the incubating Vector API with the platform's preferred int species (8 lanes on AVX2,
+ * 16 on AVX-512). ArrayConcepts loads this class reflectively and falls back to its scalar
+ * kernels when it is absent. It lives in its own directory so the plain `javac *.java` build
+ * never needs the incubator module; build and run it on top of the regular classes:
+ *
+ *   javac -d out *.java
+ *   javac --add-modules jdk.incubator.vector -cp out -d out vector/ArrayVectorKernels.java
+ *   java --add-modules jdk.incubator.vector -cp out ArrayConcepts bench
+ *
+ * Kernels covered:
+ * 1. Min / Max (lane-wise accumulators, one horizontal reduction at the end)
+ * 2. Wrapping Sum (for missingNumber)
+ * 3. In-place Reverse (swap mirrored blocks through a lane-reversing shuffle)
+ * 4. Move Zeroes (whole-vector stores for all-nonzero blocks, zero blocks skipped, branch-free
+ *    compaction of mixed blocks, vector zero fill)
+ */
+final class ArrayVectorKernels implements ArrayConcepts.IntScanKernels {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final VectorShuffle<Integer> REVERSE = VectorShuffle.fromOp(SPECIES, i -> LANES - 1 - i);
+
+    @Override
+    public String name() {
+        return "vector (" + LANES + " x int)";
+    }
+
+    // 1. Min
+    @Override
+    public int min(int[] arr) {
+        int bound = SPECIES.loopBound(arr.length);
+        IntVector acc = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+        for (int i = 0; i < bound; i += LANES) acc = acc.min(IntVector.fromArray(SPECIES, arr, i));
+        int min = acc.reduceLanes(VectorOperators.MIN);
+        for (int i = bound; i < arr.length; i++) min = Math.min(min, arr[i]);
+        return min;
+    }
+
+    // 1. Max
+    @Override
+    public int max(int[] arr) {
+        int bound = SPECIES.loopBound(arr.length);
+        IntVector acc = IntVector.broadcast(SPECIES, Integer.MIN_VALUE);
+        for (int i = 0; i < bound; i += LANES) acc = acc.max(IntVector.fromArray(SPECIES, arr, i));
+        int max = acc.reduceLanes(VectorOperators.MAX);
+        for (int i = bound; i < arr.length; i++) max = Math.max(max, arr[i]);
+        return max;
+    }
+
+    // 2. Wrapping Sum (int overflow wraps exactly like the scalar loop)
+    @Override
+    public int sum(int[] arr) {
+        int bound = SPECIES.loopBound(arr.length);
+        IntVector acc = IntVector.zero(SPECIES);
+        for (int i = 0; i < bound; i += LANES) acc = acc.add(IntVector.fromArray(SPECIES, arr, i));
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        for (int i = bound; i < arr.length; i++) sum += arr[i];
+        return sum;
+    }
+
+    // 3. In-place Reverse: the block at l and its mirror at r - LANES swap places, each reversed
+    @Override
+    public void reverse(int[] arr) {
+        int l = 0, r = arr.length;
+        while (r - l >= 2 * LANES) {
+            IntVector front = IntVector.fromArray(SPECIES, arr, l);
+            IntVector back = IntVector.fromArray(SPECIES, arr, r - LANES);
+            back.rearrange(REVERSE).intoArray(arr, l);
+            front.rearrange(REVERSE).intoArray(arr, r - LANES);
+            l += LANES;
+            r -= LANES;
+        }
+        for (r--; l < r; l++, r--) {
+            int tmp = arr[l]; arr[l] = arr[r]; arr[r] = tmp;
+        }
+    }
+
+    // 4. Move Zeroes: the write index never passes the read index, so an all-nonzero block can be
+    // stored whole at the write index without clobbering unread input
+    @Override
+    public void moveZeroes(int[] arr) {
+        int bound = SPECIES.loopBound(arr.length), idx = 0, i = 0;
+        for (; i < bound; i += LANES) {
+            IntVector v = IntVector.fromArray(SPECIES, arr, i);
+            VectorMask<Integer> nonZero = v.compare(VectorOperators.NE, 0);
+            if (nonZero.allTrue()) {
+                v.intoArray(arr, idx);
+                idx += LANES;
+            } else if (nonZero.anyTrue()) {
+                // JDK 17 has no lane compress, so mixed blocks go lane by lane, branch-free:
+                // every lane is written and the index only advances past nonzero ones
+                for (int j = i; j < i + LANES; j++) {
+                    int x = arr[j];
+                    arr[idx] = x;
+                    idx += x != 0 ? 1 : 0;
+                }
+            }
+        }
+        for (; i < arr.length; i++) {
+            if (arr[i] != 0) arr[idx++] = arr[i];
+        }
+        IntVector zero = IntVector.zero(SPECIES);
+        for (; idx + LANES <= arr.length; idx += LANES) zero.intoArray(arr, idx);
+        while (idx < arr.length) arr[idx++] = 0;
+    }
+}